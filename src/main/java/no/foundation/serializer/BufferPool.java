@@ -0,0 +1,33 @@
+package no.foundation.serializer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bounded pool of byte arrays that documents are encoded into, so that
+ * encoding to bytes does not allocate a new buffer, nor grow one from
+ * scratch, for every call. Arrays that grew beyond {@link #MAX_RETAINED_SIZE}
+ * are left to the garbage collector instead of being kept. Safe for use from
+ * any thread.
+ */
+final class BufferPool {
+
+    static final int CAPACITY = 16;
+    static final int MAX_RETAINED_SIZE = 1 << 20;
+
+    private final ArrayBlockingQueue<byte[]> buffers;
+
+    BufferPool() {
+        this.buffers = new ArrayBlockingQueue<>(CAPACITY);
+    }
+
+    byte[] acquire() {
+        byte[] buffer = buffers.poll();
+        return buffer != null ? buffer : new byte[JsonSink.BUFFER_SIZE];
+    }
+
+    void release(byte[] buffer) {
+        if (buffer.length <= MAX_RETAINED_SIZE) {
+            buffers.offer(buffer);
+        }
+    }
+}
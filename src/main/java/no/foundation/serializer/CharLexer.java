@@ -0,0 +1,270 @@
+package no.foundation.serializer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import no.foundation.serializer.exceptions.JsonException;
+
+/**
+ * Lexer over a character stream, read through a fixed-size window that only
+ * grows when a single token does not fit in it.
+ */
+final class CharLexer extends JsonLexer {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final char[] TRUE_LITERAL = "true".toCharArray();
+    private static final char[] FALSE_LITERAL = "false".toCharArray();
+    private static final char[] NULL_LITERAL = "null".toCharArray();
+
+    private final Reader reader;
+    private char[] buffer;
+    private int position;
+    private int limit;
+
+    CharLexer(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+    }
+
+    @Override
+    String value() {
+        if (token != JsonToken.STRING) {
+            return new String(buffer, start, end - start);
+        }
+        return escaped
+                ? decodeString(buffer, start + 1, end)
+                : new String(buffer, start + 1, end - start - 1);
+    }
+
+    @Override
+    String key(KeyTable table) {
+        int from = start + 1;
+        if (end - from > KeyTable.MAX_KEY_LENGTH) {
+            return value();
+        }
+        int hash = KeyTable.hash(buffer, from, end);
+        String key = table.get(hash, buffer, from, end);
+        if (key == null) {
+            key = value();
+            table.put(hash, buffer, from, end, key);
+        }
+        return key;
+    }
+
+    @Override
+    JsonToken scan() {
+        while (true) {
+            start = position;
+            if (position >= limit && !fill()) {
+                return JsonToken.EOF;
+            }
+            char c = buffer[position];
+            switch (c) {
+                case '{' -> {
+                    position++;
+                    return JsonToken.LEFT_BRACE;
+                }
+                case '}' -> {
+                    position++;
+                    return JsonToken.RIGHT_BRACE;
+                }
+                case '[' -> {
+                    position++;
+                    return JsonToken.LEFT_BRACKET;
+                }
+                case ']' -> {
+                    position++;
+                    return JsonToken.RIGHT_BRACKET;
+                }
+                case ',' -> {
+                    position++;
+                    return JsonToken.COMMA;
+                }
+                case ':' -> {
+                    position++;
+                    return JsonToken.COLON;
+                }
+                case '"' -> {
+                    return scanString();
+                }
+                case ' ', '\t', '\n', '\r' -> {
+                    char[] chars = buffer;
+                    int i = position + 1;
+                    while (i < limit && isWhitespace(chars[i])) {
+                        i++;
+                    }
+                    position = i;
+                }
+                default -> {
+                    if (c == '-' || isDigit(c)) {
+                        return scanNumber();
+                    } else if (c == 't' || c == 'f' || c == 'n') {
+                        return scanLiteral();
+                    } else {
+                        throw new JsonException("Unexpected character '%c'".formatted(c));
+                    }
+                }
+            }
+        }
+    }
+
+    private JsonToken scanLiteral() {
+        while (isLetter(peekChar())) {
+            position++;
+        }
+        if (matches(TRUE_LITERAL)) {
+            return JsonToken.TRUE;
+        } else if (matches(FALSE_LITERAL)) {
+            return JsonToken.FALSE;
+        } else if (matches(NULL_LITERAL)) {
+            return JsonToken.NULL;
+        }
+        throw new JsonException("Unexpected token: " + new String(buffer, start, position - start));
+    }
+
+    private JsonToken scanNumber() {
+        decimal = false;
+        negative = buffer[position] == '-';
+        mantissa = 0;
+        digits = 0;
+        scale = 0;
+        exponent = 0;
+        if (negative) {
+            position++;
+        }
+        scanDigits();
+        if (peekChar() == '.') {
+            decimal = true;
+            position++;
+            scale = scanDigits();
+        }
+        int c = peekChar();
+        if (c == 'e' || c == 'E') {
+            decimal = true;
+            position++;
+            c = peekChar();
+            boolean negativeExponent = c == '-';
+            if (c == '+' || c == '-') {
+                position++;
+            }
+            scanExponent();
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+        end = position;
+        return JsonToken.NUMBER;
+    }
+
+    private int scanDigits() {
+        int count = 0;
+        int c;
+        while (isDigit(c = peekChar())) {
+            mantissa = mantissa * 10 + (c - '0');
+            position++;
+            count++;
+        }
+        if (count == 0) {
+            throw invalidNumber();
+        }
+        digits += count;
+        return count;
+    }
+
+    private void scanExponent() {
+        int c;
+        boolean empty = true;
+        while (isDigit(c = peekChar())) {
+            exponent = Math.min(MAX_EXPONENT, exponent * 10 + (c - '0'));
+            position++;
+            empty = false;
+        }
+        if (empty) {
+            throw invalidNumber();
+        }
+    }
+
+    /**
+     * Scans to the closing quote. Runs of plain characters are skipped in a
+     * tight loop; a backslash only marks the string for escape decoding and
+     * skips the character after it.
+     */
+    private JsonToken scanString() {
+        position++;
+        escaped = false;
+        while (true) {
+            char[] chars = buffer;
+            int i = position;
+            while (i < limit && chars[i] != '"' && chars[i] != '\\') {
+                i++;
+            }
+            position = i;
+            if (position >= limit) {
+                if (!fill()) {
+                    throw new JsonException("Unterminated string");
+                }
+            } else if (chars[position] == '"') {
+                end = position++;
+                return JsonToken.STRING;
+            } else {
+                escaped = true;
+                if (++position >= limit && !fill()) {
+                    throw new JsonException("Unterminated string");
+                }
+                position++;
+            }
+        }
+    }
+
+    private JsonException invalidNumber() {
+        return new JsonException("Invalid number: " + new String(buffer, start, position - start));
+    }
+
+    private boolean matches(char[] literal) {
+        return Arrays.equals(buffer, start, position, literal, 0, literal.length);
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private static boolean isLetter(int c) {
+        return (c | 0x20) >= 'a' && (c | 0x20) <= 'z';
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private int peekChar() {
+        return position < limit || fill() ? buffer[position] : -1;
+    }
+
+    /**
+     * Reads more input into the buffer, keeping the token being scanned. The
+     * buffer only grows when a single token does not fit in it.
+     */
+    private boolean fill() {
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, limit - start);
+            position -= start;
+            limit -= start;
+            start = 0;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        try {
+            int read = reader.read(buffer, limit, buffer.length - limit);
+            if (read == -1) {
+                return false;
+            }
+            limit += read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package no.foundation.serializer;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import no.foundation.serializer.annotations.JsonIgnore;
+import no.foundation.serializer.exceptions.JsonException;
+
+/**
+ * The declared fields of a class that are encoded, in declaration order, made
+ * accessible once and each with its member key already quoted, escaped and
+ * followed by the colon, as characters and as UTF-8 bytes. Sinks write a key
+ * with a single bulk copy instead of escaping and encoding the field name for
+ * every instance. Computed once per class.
+ */
+final class EncodedFields {
+
+    private static final ClassValue<EncodedFields> TYPES = new ClassValue<>() {
+        @Override
+        protected EncodedFields computeValue(Class<?> type) {
+            return new EncodedFields(type);
+        }
+    };
+
+    private final Field[] fields;
+    private final Key[] keys;
+
+    private EncodedFields(Class<?> type) {
+        List<Field> encoded = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            JsonIgnore annotation = field.getAnnotation(JsonIgnore.class);
+            if (annotation == null || !annotation.onlyEncoder()) {
+                field.setAccessible(true);
+                encoded.add(field);
+            }
+        }
+        this.fields = encoded.toArray(Field[]::new);
+        this.keys = new Key[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            keys[i] = Key.of(fields[i].getName());
+        }
+    }
+
+    static EncodedFields of(Class<?> type) {
+        return TYPES.get(type);
+    }
+
+    int size() {
+        return fields.length;
+    }
+
+    String name(int i) {
+        return keys[i].name();
+    }
+
+    Key key(int i) {
+        return keys[i];
+    }
+
+    Object value(int i, Object object) {
+        try {
+            return fields[i].get(object);
+        } catch (IllegalAccessException e) {
+            throw new JsonException("Can't read field " + fields[i].getName(), e);
+        }
+    }
+
+    /**
+     * A member name followed by {@code ": "}, pre-encoded for each kind of
+     * sink, with and without non-ASCII characters escaped. The ASCII-only
+     * forms are the same arrays as the others when the name is ASCII.
+     */
+    record Key(String name, char[] chars, byte[] bytes, char[] asciiChars, byte[] asciiBytes) {
+
+        static Key of(String name) {
+            String key = JsonStrings.quote(name) + ": ";
+            String ascii = JsonStrings.quote(name, true) + ": ";
+            char[] chars = key.toCharArray();
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            if (ascii.equals(key)) {
+                return new Key(name, chars, bytes, chars, bytes);
+            }
+            return new Key(name, chars, bytes, ascii.toCharArray(), ascii.getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+}
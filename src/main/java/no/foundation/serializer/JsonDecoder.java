@@ -1,89 +1,197 @@
 package no.foundation.serializer;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import no.foundation.serializer.exceptions.JsonException;
+import no.foundation.serializer.tree.JsonArray;
 import no.foundation.serializer.tree.JsonNode;
 
 final class JsonDecoder {
 
-    private final JsonLexer lexer;
+    private final StructuralIndexer indexer;
+    private final NumberMode numberMode;
+    private final boolean lazy;
+    private final boolean tape;
+    private final boolean projection;
+    private final KeyTable keys;
+    private final ParallelDecoder parallel;
 
-    JsonDecoder() {
-        this.lexer = new JsonLexer();
+    JsonDecoder(StructuralIndexer indexer, NumberMode numberMode, boolean lazy, boolean tape, boolean projection,
+            KeyTable keys, WorkerPool workers) {
+        this.indexer = indexer;
+        this.numberMode = numberMode;
+        this.lazy = lazy;
+        this.tape = tape;
+        this.projection = projection;
+        this.keys = keys;
+        this.parallel = new ParallelDecoder(workers, numberMode);
+    }
+
+    KeyCacheStatistics keyCacheStatistics() {
+        return keys != null ? keys.statistics() : new KeyCacheStatistics(0, 0);
     }
 
     <T> T decode(File file, Class<T> type) throws JsonException, IOException {
-        String src = readInput(new FileInputStream(file), true);
-        List<JsonToken> tokens = lexer.tokenize(src);
-        JsonParser parser = new JsonParser(tokens);
-        JsonNode node = parser.parse();
+        return decode(file.toPath(), type);
+    }
+
+    JsonNode decode(File file) throws JsonException, IOException {
+        return decode(file.toPath());
+    }
+
+    <T> T decode(Path path, Class<T> type) throws JsonException, IOException {
+        JsonNode node = parse(new MappedInputStream(path), true, projection(type));
         JsonConverter converter = new JsonConverter();
         return converter.convert(node.getOriginalType(), type);
     }
 
-    JsonNode decode(File file) throws JsonException, IOException {
-        String src = readInput(new FileInputStream(file), true);
-        List<JsonToken> tokens = lexer.tokenize(src);
-        JsonParser parser = new JsonParser(tokens);
-        return parser.parse();
+    JsonNode decode(Path path) throws JsonException, IOException {
+        return decode(new MappedInputStream(path), true);
     }
 
     <T> T decode(InputStream stream, Class<T> type, boolean autoClose) throws JsonException, IOException {
-        String src = readInput(stream, autoClose);
-        List<JsonToken> tokens = lexer.tokenize(src);
-        JsonParser parser = new JsonParser(tokens);
-        JsonNode node = parser.parse();
+        JsonNode node = parse(stream, autoClose, projection(type));
         JsonConverter converter = new JsonConverter();
         return converter.convert(node.getOriginalType(), type);
     }
 
     JsonNode decode(InputStream stream, boolean autoClose) throws JsonException, IOException {
-        String src = readInput(stream, autoClose);
-        List<JsonToken> tokens = lexer.tokenize(src);
-        JsonParser parser = new JsonParser(tokens);
-        return parser.parse();
+        if (!lazy) {
+            return parse(stream, autoClose, Projection.ALL);
+        }
+        try {
+            byte[] src = stream.readAllBytes();
+            return parseLazily(src, 0, src.length);
+        } finally {
+            if (autoClose) {
+                stream.close();
+            }
+        }
+    }
+
+    private JsonNode parse(InputStream stream, boolean autoClose, Projection projection) throws IOException {
+        try {
+            return parse(new Utf8Lexer(stream), projection);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (autoClose) {
+                stream.close();
+            }
+        }
+    }
+
+    <T> Stream<T> decodeLines(InputStream stream, Class<T> type) {
+        JsonLinesIterator<T> iterator = new JsonLinesIterator<>(stream, type, numberMode, projection(type));
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED);
+        return StreamSupport.stream(spliterator, false).onClose(iterator::close);
+    }
+
+    <T> List<T> decodeLines(byte[] src, int offset, int length, Class<T> type, boolean ordered) throws JsonException {
+        return parallel.decodeLines(src, offset, length, type, projection(type), ordered);
+    }
+
+    <T> List<T> decodeLines(Path path, Class<T> type, boolean ordered) throws JsonException, IOException {
+        return parallel.decodeLines(path, type, projection(type), ordered);
+    }
+
+    JsonArray decodeArray(byte[] src, int offset, int length) throws JsonException {
+        JsonArray array = new JsonArray();
+        array.addAll(parallel.decodeArray(src, offset, length, Projection.ALL, Function.identity()));
+        return array;
+    }
+
+    <T> List<T> decodeArray(byte[] src, int offset, int length, Class<T> type) throws JsonException {
+        JsonConverter converter = new JsonConverter();
+        return parallel.decodeArray(src, offset, length, projection(type), node -> converter.convert(node.getOriginalType(), type));
+    }
+
+    JsonArray decodeArray(Path path) throws JsonException, IOException {
+        JsonArray array = new JsonArray();
+        array.addAll(parallel.decodeArray(path, Projection.ALL, Function.identity()));
+        return array;
+    }
+
+    <T> List<T> decodeArray(Path path, Class<T> type) throws JsonException, IOException {
+        JsonConverter converter = new JsonConverter();
+        return parallel.decodeArray(path, projection(type), node -> converter.convert(node.getOriginalType(), type));
     }
 
     <T> T decode(String src, Class<T> type) throws JsonException {
-        List<JsonToken> tokens = lexer.tokenize(src);
-        JsonParser parser = new JsonParser(tokens);
-        JsonNode node = parser.parse();
+        JsonNode node = parse(new CharLexer(new StringReader(src)), projection(type));
         JsonConverter converter = new JsonConverter();
         return converter.convert(node.getOriginalType(), type);
     }
 
     JsonNode decode(String src) throws JsonException {
-        List<JsonToken> tokens = lexer.tokenize(src);
-        JsonParser parser = new JsonParser(tokens);
-        return parser.parse();
+        if (lazy) {
+            byte[] bytes = src.getBytes(StandardCharsets.UTF_8);
+            return parseLazily(bytes, 0, bytes.length);
+        }
+        return parse(new CharLexer(new StringReader(src)), Projection.ALL);
     }
 
-    private String readInput(InputStream stream, boolean autoClose) throws IOException {
-        BufferedInputStream reader = null;
-        try {
-            reader = new BufferedInputStream(stream);
-            StringBuilder sb = new StringBuilder();
-            byte[] buffer = new byte[1024];
-            while (reader.available() > 0) {
-                int read = reader.read(buffer);
-                if (read == -1) {
-                    break;
-                }
-                sb.append(new String(buffer, 0, read, StandardCharsets.UTF_8));
-            }
-            return sb.toString();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        } finally {
-            if (autoClose && reader != null) {
-                reader.close();
-            }
+    JsonNode decode(String src, Collection<String> paths) throws JsonException {
+        return parse(new CharLexer(new StringReader(src)), Projection.of(paths));
+    }
+
+    <T> T decode(byte[] src, int offset, int length, Class<T> type) throws JsonException {
+        JsonNode node = parse(src, offset, length, projection(type));
+        JsonConverter converter = new JsonConverter();
+        return converter.convert(node.getOriginalType(), type);
+    }
+
+    JsonNode decode(byte[] src, int offset, int length) throws JsonException {
+        if (lazy) {
+            return parseLazily(src, offset, length);
+        }
+        return parse(src, offset, length, Projection.ALL);
+    }
+
+    JsonNode decode(byte[] src, int offset, int length, Collection<String> paths) throws JsonException {
+        return parse(src, offset, length, Projection.of(paths));
+    }
+
+    private JsonNode parse(byte[] src, int offset, int length, Projection projection) {
+        StructuralIndexer.Index index = indexer != null ? indexer.index(src, offset, length) : null;
+        if (tape) {
+            return parse(new TapeLexer(Tape.build(src, offset, length, index)), projection);
         }
+        return parse(new Utf8Lexer(src, offset, length, index), projection);
+    }
+
+    private JsonNode parseLazily(byte[] src, int offset, int length) {
+        JsonParser parser = new JsonParser(src, offset, length, numberMode, keys);
+        JsonNode node = parser.parse();
+        parser.expectEnd();
+        return node;
+    }
+
+    private JsonNode parse(JsonLexer lexer, Projection projection) {
+        JsonParser parser = new JsonParser(lexer, numberMode, keys);
+        JsonNode node = parser.parse(projection);
+        parser.expectEnd();
+        return node;
+    }
+
+    /**
+     * Returns the projection to parse with when decoding to the given class:
+     * only what the class binds if projections are enabled, everything
+     * otherwise.
+     */
+    private Projection projection(Class<?> type) {
+        return projection ? Projection.of(type) : Projection.ALL;
     }
 }
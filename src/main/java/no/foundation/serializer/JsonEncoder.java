@@ -1,5 +1,12 @@
 package no.foundation.serializer;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Objects;
 import no.foundation.serializer.tree.JsonNode;
 
@@ -7,10 +14,20 @@ final class JsonEncoder {
 
     private final JsonTreeAssembler partitioner;
     private final JsonPrinter printer;
+    private final BufferPool buffers;
+    private final boolean ascii;
+    private final ParallelEncoder parallel;
 
-    JsonEncoder() {
+    /**
+     * Constructs an encoder that encodes large collections with the given
+     * parallel encoder, or sequentially if it is null.
+     */
+    JsonEncoder(boolean ascii, ParallelEncoder parallel) {
         this.partitioner = new JsonTreeAssembler();
-        this.printer = new JsonPrinter();
+        this.printer = new JsonPrinter(ascii);
+        this.buffers = new BufferPool();
+        this.ascii = ascii;
+        this.parallel = parallel;
     }
 
     String encode(JsonNode node, boolean formatted) {
@@ -22,12 +39,91 @@ final class JsonEncoder {
     }
 
     String encode(Object value) {
-        JsonNode node = partitioner.assemble(Objects.requireNonNull(value));
-        return printer.print(node, false);
+        return encode(value, false);
     }
 
+    /**
+     * Encodes through a tree, or straight into a growing character buffer
+     * when large collections are encoded in parallel, which gives the same
+     * text.
+     */
     String encode(Object value, boolean formatted) {
-        JsonNode node = partitioner.assemble(Objects.requireNonNull(value));
+        Objects.requireNonNull(value);
+        if (parallel != null) {
+            JsonSink.Chars sink = new JsonSink.Chars(new char[JsonSink.BUFFER_SIZE], ascii);
+            new JsonStreamEncoder(sink, formatted, parallel).encode(value);
+            return sink.text();
+        }
+        JsonNode node = partitioner.assemble(value);
         return printer.print(node, formatted);
     }
+
+    void encode(Object value, OutputStream stream, boolean formatted) throws IOException {
+        encode(value, new JsonSink.Bytes(stream, ascii), formatted);
+    }
+
+    void encode(Object value, Writer writer, boolean formatted) throws IOException {
+        encode(value, new JsonSink.Chars(writer, ascii), formatted);
+    }
+
+    byte[] encodeToBytes(Object value, boolean formatted) {
+        JsonSink.Bytes sink = encodeToPooled(value, formatted);
+        try {
+            return Arrays.copyOf(sink.buffer(), sink.size());
+        } finally {
+            buffers.release(sink.buffer());
+        }
+    }
+
+    /**
+     * Encodes into a pooled buffer that the caller must give back with
+     * {@link #release(ByteBuffer)}.
+     */
+    ByteBuffer encodeToBuffer(Object value, boolean formatted) {
+        JsonSink.Bytes sink = encodeToPooled(value, formatted);
+        return ByteBuffer.wrap(sink.buffer(), 0, sink.size());
+    }
+
+    int encode(Object value, ByteBuffer target, boolean formatted) {
+        JsonSink.Bytes sink = encodeToPooled(value, formatted);
+        try {
+            if (sink.size() > target.remaining()) {
+                throw new BufferOverflowException();
+            }
+            target.put(sink.buffer(), 0, sink.size());
+            return sink.size();
+        } finally {
+            buffers.release(sink.buffer());
+        }
+    }
+
+    void release(ByteBuffer buffer) {
+        if (buffer.hasArray() && !buffer.isReadOnly()) {
+            buffers.release(buffer.array());
+        }
+    }
+
+    /**
+     * Encodes into a buffer taken from the pool, returning the sink so the
+     * caller can find the buffer it ended up in. The buffer is given back to
+     * the pool if encoding fails.
+     */
+    private JsonSink.Bytes encodeToPooled(Object value, boolean formatted) {
+        JsonSink.Bytes sink = new JsonSink.Bytes(buffers.acquire(), ascii);
+        try {
+            new JsonStreamEncoder(sink, formatted, parallel).encode(value);
+        } catch (RuntimeException e) {
+            buffers.release(sink.buffer());
+            throw e;
+        }
+        return sink;
+    }
+
+    private void encode(Object value, JsonSink sink, boolean formatted) throws IOException {
+        try {
+            new JsonStreamEncoder(sink, formatted, parallel).encode(value);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
 }
@@ -1,125 +1,312 @@
 package no.foundation.serializer;
 
-import java.util.ArrayList;
-import java.util.List;
-import no.foundation.serializer.JsonToken.TokenType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import no.foundation.serializer.exceptions.JsonException;
+import no.foundation.serializer.tree.JsonNumber;
 
-final class JsonLexer {
+/**
+ * Cursor over the tokens of a JSON document. Tokens are scanned on demand
+ * from a window of the input, so the whole document is never tokenized up
+ * front. Implementations differ only in how they hold the input.
+ * <p>
+ * While a number is scanned its digits are accumulated into
+ * {@link #mantissa}, so numbers of up to 18 digits are converted without
+ * copying their text out of the input.
+ */
+abstract sealed class JsonLexer permits CharLexer, Utf8Lexer, TapeLexer {
 
-    private int index;
+    static final int MAX_EXPONENT = 1_000_000;
 
-    JsonLexer() {
-        this.index = 0;
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22,
+    };
+
+    JsonToken token;
+    int start;
+    int end;
+    boolean decimal;
+    boolean escaped;
+    boolean negative;
+    long mantissa;
+    int digits;
+    int scale;
+    int exponent;
+
+    JsonToken peek() {
+        if (token == null) {
+            token = scan();
+        }
+        return token;
     }
 
-    List<JsonToken> tokenize(String expr) {
-        List<JsonToken> tokens = new ArrayList<>();
-        while (index < expr.length()) {
-            char c = expr.charAt(index);
-            switch (c) {
-                case '{' -> {
-                    tokens.add(tokenize(TokenType.LEFT_BRACE, String.valueOf(c)));
-                    index++;
-                }
-                case '}' -> {
-                    tokens.add(tokenize(TokenType.RIGHT_BRACE, String.valueOf(c)));
-                    index++;
-                }
-                case '[' -> {
-                    tokens.add(tokenize(TokenType.LEFT_BRACKET, String.valueOf(c)));
-                    index++;
-                }
-                case ']' -> {
-                    tokens.add(tokenize(TokenType.RIGHT_BRACKET, String.valueOf(c)));
-                    index++;
-                }
-                case ',' -> {
-                    tokens.add(tokenize(TokenType.COMMA, String.valueOf(c)));
-                    index++;
-                }
-                case ':' -> {
-                    tokens.add(tokenize(TokenType.COLON, String.valueOf(c)));
-                    index++;
-                }
-                case '"' -> {
-                    tokens.add(tokenizeString(expr));
+    void consume() {
+        token = null;
+    }
+
+    /**
+     * Skips the current value, nested values included, without decoding any
+     * string or number in it. Only the token boundaries are checked, and
+     * that the value does not start with a separator or a closing token, not
+     * whether the tokens inside a container form valid JSON.
+     */
+    void skipValue() {
+        JsonToken first = peek();
+        if (first == JsonToken.COLON || first == JsonToken.COMMA) {
+            throw new JsonException("Unexpected token: " + first);
+        }
+        int depth = 0;
+        do {
+            JsonToken type = peek();
+            switch (type) {
+                case LEFT_BRACE, LEFT_BRACKET ->
+                    depth++;
+                case RIGHT_BRACE, RIGHT_BRACKET -> {
+                    if (--depth < 0) {
+                        throw new JsonException("Unexpected token: " + type);
+                    }
                 }
+                case EOF ->
+                    throw new JsonException("Unexpected token: " + JsonToken.EOF);
                 default -> {
-                    if (c == '-' || Character.isDigit(c)) {
-                        tokens.add(tokenizeNumber(expr));
-                    } else if (c == 't' || c == 'f' || c == 'n') {
-                        tokens.add(tokenizeLiteral(expr));
-                    } else if (Character.isWhitespace(c)) {
-                        index++;
-                    } else {
-                        throw new JsonException("Unexpected character '%c'".formatted(c));
-                    }
                 }
             }
+            consume();
+        } while (depth > 0);
+    }
+
+    boolean isDecimal() {
+        return decimal;
+    }
+
+    /**
+     * Returns the text of the current string or number token. For strings the
+     * surrounding quotes are not included and escape sequences are decoded.
+     */
+    abstract String value();
+
+    abstract JsonToken scan();
+
+    /**
+     * Returns the text of the current string token as an object member name,
+     * canonicalized through the given table.
+     */
+    abstract String key(KeyTable table);
+
+    /**
+     * Returns the current number token as the type chosen by the given mode.
+     */
+    Number number(NumberMode mode) {
+        return switch (mode) {
+            case LONG_OR_DOUBLE ->
+                decimal ? doubleOrBigDecimal() : longOrBigInteger();
+            case BIG_DECIMAL ->
+                decimal ? bigDecimalValue() : bigIntegerValue();
+            case LAZY ->
+                new JsonNumber(value());
+        };
+    }
+
+    long longValue() {
+        if (digits <= MAX_LONG_DIGITS) {
+            return negative ? -mantissa : mantissa;
         }
-        this.index = 0;
-        return tokens;
+        return Long.parseLong(value());
     }
 
-    private JsonToken tokenizeLiteral(String expr) {
-        StringBuilder sb = new StringBuilder();
-        while (index < expr.length() && Character.isLetter(expr.charAt(index))) {
-            sb.append(expr.charAt(index++));
+    /**
+     * Converts the current number token to a double. Mantissas of up to 15
+     * digits scaled by at most 10^22 are exact in a double, so a single
+     * multiplication or division rounds correctly; anything else goes through
+     * {@link Double#parseDouble(String)}.
+     */
+    double doubleValue() {
+        if (digits <= MAX_EXACT_DIGITS) {
+            int power = exponent - scale;
+            if (mantissa == 0) {
+                return negative ? -0.0 : 0.0;
+            } else if (power >= 0 && power < POWERS_OF_TEN.length) {
+                double value = mantissa * POWERS_OF_TEN[power];
+                return negative ? -value : value;
+            } else if (power < 0 && -power < POWERS_OF_TEN.length) {
+                double value = mantissa / POWERS_OF_TEN[-power];
+                return negative ? -value : value;
+            }
         }
-        String value = sb.toString();
-        return switch (value) {
-            case "true" ->
-                tokenize(TokenType.TRUE, value);
-            case "false" ->
-                tokenize(TokenType.FALSE, value);
-            case "null" ->
-                tokenize(TokenType.NULL, value);
-            default ->
-                throw new JsonException("Unexpected token: " + value);
-        };
+        return Double.parseDouble(value());
     }
 
-    private JsonToken tokenizeNumber(String expr) {
-        StringBuilder sb = new StringBuilder();
-        if (expr.charAt(index) == '-') {
-            sb.append('-');
-            index++;
+    private Number longOrBigInteger() {
+        if (digits <= MAX_LONG_DIGITS) {
+            return negative ? -mantissa : mantissa;
         }
-        while (index < expr.length() && Character.isDigit(expr.charAt(index))) {
-            sb.append(expr.charAt(index++));
+        BigInteger value = new BigInteger(value());
+        return value.bitLength() < Long.SIZE ? (Number) value.longValue() : value;
+    }
+
+    private Number doubleOrBigDecimal() {
+        double value = doubleValue();
+        return Double.isInfinite(value) ? new BigDecimal(value()) : (Number) value;
+    }
+
+    private BigInteger bigIntegerValue() {
+        if (digits <= MAX_LONG_DIGITS) {
+            return BigInteger.valueOf(negative ? -mantissa : mantissa);
         }
-        if (expr.charAt(index) == '.') {
-            sb.append(expr.charAt(index++));
-            while (index < expr.length()) {
-                char c = expr.charAt(index);
-                if (!Character.isDigit(c)) {
-                    break;
-                }
-                sb.append(expr.charAt(index++));
+        return new BigInteger(value());
+    }
+
+    private BigDecimal bigDecimalValue() {
+        if (digits <= MAX_LONG_DIGITS && exponent > -MAX_EXPONENT && exponent < MAX_EXPONENT) {
+            return BigDecimal.valueOf(negative ? -mantissa : mantissa, scale - exponent);
+        }
+        return new BigDecimal(value());
+    }
+
+    /**
+     * Decodes the UTF-8 contents of a string token. Runs without escapes are
+     * decoded in bulk; only the escape sequences themselves are handled one
+     * at a time.
+     */
+    static String decodeString(byte[] src, int from, int to) {
+        int backslash = indexOfBackslash(src, from, to);
+        if (backslash == to) {
+            return new String(src, from, to - from, StandardCharsets.UTF_8);
+        }
+        StringBuilder sb = new StringBuilder(to - from);
+        int run = from;
+        for (int i = backslash; i < to; i = indexOfBackslash(src, run, to)) {
+            if (i > run) {
+                sb.append(new String(src, run, i - run, StandardCharsets.UTF_8));
+            }
+            if (i + 1 == to) {
+                throw new JsonException("Unterminated escape sequence");
+            }
+            int escape = src[i + 1] & 0xFF;
+            if (escape == 'u') {
+                sb.append(unicodeEscape(src, i + 2, to));
+                run = i + 6;
+            } else {
+                sb.append(simpleEscape(escape < 0x80 ? escape : codePointAt(src, i + 1, to)));
+                run = i + 2;
             }
         }
-        return tokenize(TokenType.NUMBER, sb.toString());
+        if (run < to) {
+            sb.append(new String(src, run, to - run, StandardCharsets.UTF_8));
+        }
+        return sb.toString();
     }
 
-    private JsonToken tokenizeString(String expr) {
-        StringBuilder sb = new StringBuilder();
-        index++;
-        char prev = '\0';
-        while (index < expr.length()) {
-            char c = expr.charAt(index);
-            if (c == '"' && prev != '\\') {
-                break;
+    /**
+     * Decodes the contents of a string token, copying runs without escapes
+     * in bulk.
+     */
+    static String decodeString(char[] src, int from, int to) {
+        int backslash = indexOfBackslash(src, from, to);
+        if (backslash == to) {
+            return new String(src, from, to - from);
+        }
+        StringBuilder sb = new StringBuilder(to - from);
+        int run = from;
+        for (int i = backslash; i < to; i = indexOfBackslash(src, run, to)) {
+            sb.append(src, run, i - run);
+            if (i + 1 == to) {
+                throw new JsonException("Unterminated escape sequence");
             }
-            sb.append(c);
-            prev = c;
-            index++;
+            int escape = src[i + 1];
+            if (escape == 'u') {
+                sb.append(unicodeEscape(src, i + 2, to));
+                run = i + 6;
+            } else {
+                sb.append(simpleEscape(escape));
+                run = i + 2;
+            }
+        }
+        sb.append(src, run, to - run);
+        return sb.toString();
+    }
+
+    /**
+     * Returns the code point whose UTF-8 encoding starts at the given offset,
+     * for reporting a character outside the ASCII range.
+     */
+    private static int codePointAt(byte[] src, int from, int to) {
+        return new String(src, from, Math.min(4, to - from), StandardCharsets.UTF_8).codePointAt(0);
+    }
+
+    private static int indexOfBackslash(byte[] src, int from, int to) {
+        while (from < to && src[from] != '\\') {
+            from++;
         }
-        index++;
-        return tokenize(TokenType.STRING, sb.toString());
+        return from;
     }
 
-    private JsonToken tokenize(TokenType type, String value) {
-        return new JsonToken(type, value);
+    private static int indexOfBackslash(char[] src, int from, int to) {
+        while (from < to && src[from] != '\\') {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Decodes the four hex digits of a {@code \\u} escape. The two halves of a
+     * surrogate pair are separate escapes and combine in the resulting string.
+     */
+    private static char unicodeEscape(byte[] src, int from, int to) {
+        if (from + 4 > to) {
+            throw new JsonException("Invalid unicode escape sequence");
+        }
+        int code = 0;
+        for (int i = from; i < from + 4; i++) {
+            code = code << 4 | hexDigit(src[i]);
+        }
+        return (char) code;
+    }
+
+    private static char unicodeEscape(char[] src, int from, int to) {
+        if (from + 4 > to) {
+            throw new JsonException("Invalid unicode escape sequence");
+        }
+        int code = 0;
+        for (int i = from; i < from + 4; i++) {
+            code = code << 4 | hexDigit(src[i]);
+        }
+        return (char) code;
+    }
+
+    private static char simpleEscape(int escape) {
+        return switch (escape) {
+            case '"' ->
+                '"';
+            case '\\' ->
+                '\\';
+            case '/' ->
+                '/';
+            case 'b' ->
+                '\b';
+            case 'f' ->
+                '\f';
+            case 'n' ->
+                '\n';
+            case 'r' ->
+                '\r';
+            case 't' ->
+                '\t';
+            default ->
+                throw new JsonException("Invalid escape sequence '\\%c'".formatted(escape));
+        };
+    }
+
+    private static int hexDigit(int c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if ((c | 0x20) >= 'a' && (c | 0x20) <= 'f') {
+            return (c | 0x20) - 'a' + 10;
+        }
+        throw new JsonException("Invalid unicode escape sequence");
     }
 }
@@ -0,0 +1,156 @@
+package no.foundation.serializer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import no.foundation.serializer.exceptions.JsonException;
+import no.foundation.serializer.tree.JsonNode;
+
+/**
+ * Iterator over the records of a newline-delimited JSON stream. The input is
+ * read in fixed-size blocks and every line is parsed in place with the same
+ * lexer and parser, so memory stays bounded by the block size and the longest
+ * line. Lines that hold only whitespace are skipped.
+ */
+final class JsonLinesIterator<T> implements Iterator<T>, Closeable {
+
+    private static final int BLOCK_SIZE = 65536;
+
+    private final InputStream stream;
+    private final Class<T> type;
+    private final Utf8Lexer lexer;
+    private final JsonParser parser;
+    private final JsonConverter converter;
+    private final Projection projection;
+    private final byte[] block;
+    private int blockPosition;
+    private int blockLimit;
+    private byte[] line;
+    private long lineNumber;
+    private boolean ready;
+    private boolean exhausted;
+    private T next;
+
+    JsonLinesIterator(InputStream stream, Class<T> type, NumberMode numberMode, Projection projection) {
+        this.stream = stream;
+        this.type = type;
+        this.lexer = new Utf8Lexer(new byte[0], 0, 0);
+        this.parser = new JsonParser(lexer, numberMode, new KeyTable(KeyTable.DEFAULT_CAPACITY));
+        this.converter = new JsonConverter();
+        this.projection = projection;
+        this.block = new byte[BLOCK_SIZE];
+        this.line = new byte[256];
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!ready && !exhausted) {
+            if (!nextLine()) {
+                exhausted = true;
+            } else {
+                ready = parseLine();
+            }
+        }
+        return ready;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ready = false;
+        T result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void close() {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses the line the lexer points at into {@link #next}, returning false
+     * if it is blank.
+     */
+    private boolean parseLine() {
+        try {
+            if (lexer.peek() == JsonToken.EOF) {
+                return false;
+            }
+            JsonNode node = parser.parse(projection);
+            if (lexer.peek() != JsonToken.EOF) {
+                throw new JsonException("Unexpected token after value: " + lexer.peek());
+            }
+            next = converter.convert(node.getOriginalType(), type);
+            return true;
+        } catch (JsonException e) {
+            throw new JsonException("Invalid record on line %d: %s".formatted(lineNumber, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Points the lexer at the next line, straight inside the block when the
+     * whole line is there and in the line buffer when it spans blocks.
+     */
+    private boolean nextLine() {
+        if (blockPosition == blockLimit && !refill()) {
+            return false;
+        }
+        int newline = indexOfNewline(blockPosition);
+        if (newline < blockLimit) {
+            lexer.reset(block, blockPosition, newline - blockPosition);
+            blockPosition = newline + 1;
+            lineNumber++;
+            return true;
+        }
+        int length = append(0, blockPosition, blockLimit);
+        while (refill()) {
+            newline = indexOfNewline(0);
+            length = append(length, 0, newline);
+            if (newline < blockLimit) {
+                blockPosition = newline + 1;
+                break;
+            }
+        }
+        lexer.reset(line, 0, length);
+        lineNumber++;
+        return true;
+    }
+
+    private int indexOfNewline(int from) {
+        while (from < blockLimit && block[from] != '\n') {
+            from++;
+        }
+        return from;
+    }
+
+    private int append(int length, int from, int to) {
+        int count = to - from;
+        if (line.length - length < count) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+        }
+        System.arraycopy(block, from, line, length, count);
+        return length + count;
+    }
+
+    private boolean refill() {
+        try {
+            int read = stream.read(block, 0, block.length);
+            blockPosition = 0;
+            blockLimit = Math.max(read, 0);
+            return read > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
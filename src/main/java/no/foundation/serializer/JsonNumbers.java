@@ -0,0 +1,545 @@
+package no.foundation.serializer;
+
+import java.math.BigInteger;
+
+/**
+ * Writes numbers as ASCII digits straight into a byte array, without creating
+ * a String first. The text is exactly what {@code toString()} of the number
+ * returns:
+ * <ul>
+ * <li>{@code int}, {@code long}, {@code short} and {@code byte} values are
+ * written two digits at a time from a table of digit pairs;</li>
+ * <li>{@code double} and {@code float} values are written as the shortest
+ * decimal that rounds back to the same value, found with the Schubfach
+ * algorithm by Raffaello Giulietti, which {@link Double#toString(double)}
+ * also uses since Java 19.</li>
+ * </ul>
+ * Other numbers, such as {@link java.math.BigDecimal} and
+ * {@link no.foundation.serializer.tree.JsonNumber}, are left to their own
+ * {@code toString()}.
+ */
+final class JsonNumbers {
+
+    /**
+     * The maximum number of bytes any of the write methods writes.
+     */
+    static final int MAX_LENGTH = 24;
+
+    private static final byte[] DIGIT_PAIRS = new byte[200];
+
+    private static final long[] POW10 = new long[18];
+
+    private static final int G_K_MIN = -324;
+    private static final int G_K_MAX = 292;
+    private static final long[] G = new long[2 * (G_K_MAX - G_K_MIN + 1)];
+
+    private static final long MASK_63 = (1L << 63) - 1;
+    private static final long MASK_32 = (1L << 32) - 1;
+    private static final int MASK_28 = (1 << 28) - 1;
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_PAIRS[2 * i] = (byte) ('0' + i / 10);
+            DIGIT_PAIRS[2 * i + 1] = (byte) ('0' + i % 10);
+        }
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = 10 * POW10[i - 1];
+        }
+        // g = floor(10^-k 2^-r) + 1 with r = flog2pow10(-k) - 125, so that
+        // 2^125 <= g < 2^126, split into its high and low 63 bits.
+        for (int k = G_K_MIN; k <= G_K_MAX; k++) {
+            int r = flog2pow10(-k) - 125;
+            BigInteger g = k <= 0
+                    ? BigInteger.TEN.pow(-k).shiftRight(r)
+                    : BigInteger.ONE.shiftLeft(-r).divide(BigInteger.TEN.pow(k));
+            g = g.add(BigInteger.ONE);
+            G[2 * (k - G_K_MIN)] = g.shiftRight(63).longValue();
+            G[2 * (k - G_K_MIN) + 1] = g.longValue() & MASK_63;
+        }
+    }
+
+    private JsonNumbers() {
+    }
+
+    /**
+     * Writes the number if it is one of the primitive wrapper types.
+     *
+     * @param value the number to write.
+     * @param buffer the array to write to, with at least
+     * {@link #MAX_LENGTH} bytes available from the offset.
+     * @param offset the index to start writing at.
+     * @return the index after the last byte written, or -1 if the number is
+     * of another type and nothing was written.
+     */
+    static int write(Number value, byte[] buffer, int offset) {
+        return switch (value) {
+            case Integer i ->
+                write(i.longValue(), buffer, offset);
+            case Long l ->
+                write(l.longValue(), buffer, offset);
+            case Double d ->
+                write(d.doubleValue(), buffer, offset);
+            case Float f ->
+                write(f.floatValue(), buffer, offset);
+            case Short s ->
+                write(s.longValue(), buffer, offset);
+            case Byte b ->
+                write(b.longValue(), buffer, offset);
+            default ->
+                -1;
+        };
+    }
+
+    /**
+     * Writes a {@code long} in decimal.
+     *
+     * @param value the value to write.
+     * @param buffer the array to write to, with at least 20 bytes available
+     * from the offset.
+     * @param offset the index to start writing at.
+     * @return the index after the last byte written.
+     */
+    static int write(long value, byte[] buffer, int offset) {
+        // Works on the negated value, so that Long.MIN_VALUE needs no special
+        // case.
+        long q = value;
+        if (value < 0) {
+            buffer[offset++] = '-';
+        } else {
+            q = -value;
+        }
+        int end = offset + negativeDigits(q);
+        int i = end;
+        while (q <= -100) {
+            long next = q / 100;
+            int pair = (int) (100 * next - q);
+            q = next;
+            buffer[--i] = DIGIT_PAIRS[2 * pair + 1];
+            buffer[--i] = DIGIT_PAIRS[2 * pair];
+        }
+        if (q <= -10) {
+            int pair = (int) -q;
+            buffer[--i] = DIGIT_PAIRS[2 * pair + 1];
+            buffer[--i] = DIGIT_PAIRS[2 * pair];
+        } else {
+            buffer[--i] = (byte) ('0' - q);
+        }
+        return end;
+    }
+
+    /**
+     * Writes a {@code double} as the shortest decimal that rounds to it, in
+     * the format of {@link Double#toString(double)}.
+     *
+     * @param value the value to write.
+     * @param buffer the array to write to, with at least {@link #MAX_LENGTH}
+     * bytes available from the offset.
+     * @param offset the index to start writing at.
+     * @return the index after the last byte written.
+     */
+    static int write(double value, byte[] buffer, int offset) {
+        return new Decimal(buffer, offset).write(value);
+    }
+
+    /**
+     * Writes a {@code float} as the shortest decimal that rounds to it, in
+     * the format of {@link Float#toString(float)}.
+     *
+     * @param value the value to write.
+     * @param buffer the array to write to, with at least {@link #MAX_LENGTH}
+     * bytes available from the offset.
+     * @param offset the index to start writing at.
+     * @return the index after the last byte written.
+     */
+    static int write(float value, byte[] buffer, int offset) {
+        return new Decimal(buffer, offset).write(value);
+    }
+
+    /**
+     * Returns the number of digits of a non-positive value.
+     */
+    private static int negativeDigits(long q) {
+        long p = -10;
+        for (int i = 1; i < 19; i++) {
+            if (q > p) {
+                return i;
+            }
+            p *= 10;
+        }
+        return 19;
+    }
+
+    private static int flog10pow2(int e) {
+        return (int) (e * 661_971_961_083L >> 41);
+    }
+
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661_971_961_083L - 274_743_187_321L >> 41);
+    }
+
+    private static int flog2pow10(int e) {
+        return (int) (e * 913_124_641_741L >> 38);
+    }
+
+    /**
+     * The Schubfach conversion of one value, after section 9 and 10 of
+     * Giulietti, "The Schubfach way to render doubles", 2021. It finds the
+     * shortest decimal in the rounding interval of the value, and the one
+     * closest to it if there are several, and then lays out its digits.
+     */
+    private static final class Decimal {
+
+        private static final int DOUBLE_P = 53;
+        private static final int DOUBLE_Q_MIN = -1074;
+        private static final long DOUBLE_C_MIN = 1L << DOUBLE_P - 1;
+        private static final int DOUBLE_C_TINY = 3;
+        private static final int DOUBLE_H = 17;
+
+        private static final int FLOAT_P = 24;
+        private static final int FLOAT_Q_MIN = -149;
+        private static final int FLOAT_C_MIN = 1 << FLOAT_P - 1;
+        private static final int FLOAT_C_TINY = 8;
+        private static final int FLOAT_H = 9;
+
+        private final byte[] buffer;
+        private int index;
+
+        Decimal(byte[] buffer, int offset) {
+            this.buffer = buffer;
+            this.index = offset;
+        }
+
+        int write(double v) {
+            long bits = Double.doubleToRawLongBits(v);
+            long t = bits & DOUBLE_C_MIN - 1;
+            int bq = (int) (bits >>> DOUBLE_P - 1) & 0x7FF;
+            if (bq == 0x7FF) {
+                return special(t != 0, bits > 0);
+            }
+            if (bits < 0) {
+                append('-');
+            }
+            if (bq != 0) {
+                int mq = -DOUBLE_Q_MIN + 1 - bq;
+                long c = DOUBLE_C_MIN | t;
+                if (0 < mq && mq < DOUBLE_P) {
+                    long f = c >> mq;
+                    if (f << mq == c) {
+                        return doubleChars(f, 0);
+                    }
+                }
+                return doubleDecimal(-mq, c, 0);
+            }
+            if (t != 0) {
+                return t < DOUBLE_C_TINY
+                        ? doubleDecimal(DOUBLE_Q_MIN, 10 * t, -1)
+                        : doubleDecimal(DOUBLE_Q_MIN, t, 0);
+            }
+            return zero();
+        }
+
+        int write(float v) {
+            int bits = Float.floatToRawIntBits(v);
+            int t = bits & FLOAT_C_MIN - 1;
+            int bq = bits >>> FLOAT_P - 1 & 0xFF;
+            if (bq == 0xFF) {
+                return special(t != 0, bits > 0);
+            }
+            if (bits < 0) {
+                append('-');
+            }
+            if (bq != 0) {
+                int mq = -FLOAT_Q_MIN + 1 - bq;
+                int c = FLOAT_C_MIN | t;
+                if (0 < mq && mq < FLOAT_P) {
+                    int f = c >> mq;
+                    if (f << mq == c) {
+                        return floatChars(f, 0);
+                    }
+                }
+                return floatDecimal(-mq, c, 0);
+            }
+            if (t != 0) {
+                return t < FLOAT_C_TINY
+                        ? floatDecimal(FLOAT_Q_MIN, 10 * t, -1)
+                        : floatDecimal(FLOAT_Q_MIN, t, 0);
+            }
+            return zero();
+        }
+
+        private int doubleDecimal(int q, long c, int dk) {
+            int out = (int) c & 1;
+            long cb = c << 2;
+            long cbr = cb + 2;
+            long cbl;
+            int k;
+            if (c != DOUBLE_C_MIN || q == DOUBLE_Q_MIN) {
+                cbl = cb - 2;
+                k = flog10pow2(q);
+            } else {
+                cbl = cb - 1;
+                k = flog10threeQuartersPow2(q);
+            }
+            int h = q + flog2pow10(-k) + 2;
+            long g1 = G[2 * (k - G_K_MIN)];
+            long g0 = G[2 * (k - G_K_MIN) + 1];
+            long vb = rop(g1, g0, cb << h);
+            long vbl = rop(g1, g0, cbl << h);
+            long vbr = rop(g1, g0, cbr << h);
+
+            long s = vb >> 2;
+            if (s >= 100) {
+                long sp10 = 10 * Math.multiplyHigh(s, 115_292_150_460_684_698L << 4);
+                long tp10 = sp10 + 10;
+                boolean upin = vbl + out <= sp10 << 2;
+                boolean wpin = (tp10 << 2) + out <= vbr;
+                if (upin != wpin) {
+                    return doubleChars(upin ? sp10 : tp10, k);
+                }
+            }
+            long t = s + 1;
+            boolean uin = vbl + out <= s << 2;
+            boolean win = (t << 2) + out <= vbr;
+            if (uin != win) {
+                return doubleChars(uin ? s : t, k + dk);
+            }
+            long cmp = vb - (s + t << 1);
+            return doubleChars(cmp < 0 || cmp == 0 && (s & 1) == 0 ? s : t, k + dk);
+        }
+
+        private int floatDecimal(int q, int c, int dk) {
+            int out = c & 1;
+            long cb = (long) c << 2;
+            long cbr = cb + 2;
+            long cbl;
+            int k;
+            if (c != FLOAT_C_MIN || q == FLOAT_Q_MIN) {
+                cbl = cb - 2;
+                k = flog10pow2(q);
+            } else {
+                cbl = cb - 1;
+                k = flog10threeQuartersPow2(q);
+            }
+            int h = q + flog2pow10(-k) + 33;
+            long g = G[2 * (k - G_K_MIN)] + 1;
+            int vb = rop(g, cb << h);
+            int vbl = rop(g, cbl << h);
+            int vbr = rop(g, cbr << h);
+
+            int s = vb >> 2;
+            if (s >= 100) {
+                int sp10 = 10 * (int) (s * 1_717_986_919L >>> 34);
+                int tp10 = sp10 + 10;
+                boolean upin = vbl + out <= sp10 << 2;
+                boolean wpin = (tp10 << 2) + out <= vbr;
+                if (upin != wpin) {
+                    return floatChars(upin ? sp10 : tp10, k);
+                }
+            }
+            int t = s + 1;
+            boolean uin = vbl + out <= s << 2;
+            boolean win = (t << 2) + out <= vbr;
+            if (uin != win) {
+                return floatChars(uin ? s : t, k + dk);
+            }
+            int cmp = vb - (s + t << 1);
+            return floatChars(cmp < 0 || cmp == 0 && (s & 1) == 0 ? s : t, k + dk);
+        }
+
+        /**
+         * Returns the rounded-to-odd high bits of g * cp for doubles.
+         */
+        private static long rop(long g1, long g0, long cp) {
+            long x1 = Math.multiplyHigh(g0, cp);
+            long y0 = g1 * cp;
+            long y1 = Math.multiplyHigh(g1, cp);
+            long z = (y0 >>> 1) + x1;
+            long vbp = y1 + (z >>> 63);
+            return vbp | (z & MASK_63) + MASK_63 >>> 63;
+        }
+
+        /**
+         * Returns the rounded-to-odd high bits of g * cp for floats.
+         */
+        private static int rop(long g, long cp) {
+            long x1 = Math.multiplyHigh(g, cp);
+            long vbp = x1 >>> 31;
+            return (int) (vbp | (x1 & MASK_32) + MASK_32 >>> 32);
+        }
+
+        /**
+         * Lays out the decimal f 10^e, splitting its 17 digits into the most
+         * significant one and two groups of eight.
+         */
+        private int doubleChars(long f, int e) {
+            int len = flog10pow2(Long.SIZE - Long.numberOfLeadingZeros(f));
+            if (f >= POW10[len]) {
+                len++;
+            }
+            f *= POW10[DOUBLE_H - len];
+            e += len;
+            long hm = Math.multiplyHigh(f, 193_428_131_138_340_668L) >>> 20;
+            int l = (int) (f - 100_000_000L * hm);
+            int h = (int) (hm * 1_441_151_881L >>> 57);
+            int m = (int) (hm - 100_000_000 * h);
+            if (0 < e && e <= 7) {
+                plain(h, m, e);
+                lowDigits(l);
+            } else if (-3 < e && e <= 0) {
+                fraction(h, m, e);
+                lowDigits(l);
+            } else {
+                scientific(h, m);
+                lowDigits(l);
+                exponent(e - 1);
+            }
+            return index;
+        }
+
+        /**
+         * Lays out the decimal f 10^e, splitting its 9 digits into the most
+         * significant one and a group of eight.
+         */
+        private int floatChars(int f, int e) {
+            int len = flog10pow2(Integer.SIZE - Integer.numberOfLeadingZeros(f));
+            if (f >= POW10[len]) {
+                len++;
+            }
+            f *= (int) POW10[FLOAT_H - len];
+            e += len;
+            int h = (int) (f * 1_441_151_881L >>> 57);
+            int l = f - 100_000_000 * h;
+            if (0 < e && e <= 7) {
+                plain(h, l, e);
+                removeTrailingZeroes();
+            } else if (-3 < e && e <= 0) {
+                fraction(h, l, e);
+                removeTrailingZeroes();
+            } else {
+                scientific(h, l);
+                removeTrailingZeroes();
+                exponent(e - 1);
+            }
+            return index;
+        }
+
+        /**
+         * Writes h.m with the point after the first e digits, 0 < e <= 7.
+         */
+        private void plain(int h, int m, int e) {
+            appendDigit(h);
+            int y = y(m);
+            int i = 1;
+            for (; i < e; i++) {
+                int t = 10 * y;
+                appendDigit(t >>> 28);
+                y = t & MASK_28;
+            }
+            append('.');
+            for (; i <= 8; i++) {
+                int t = 10 * y;
+                appendDigit(t >>> 28);
+                y = t & MASK_28;
+            }
+        }
+
+        /**
+         * Writes 0.00hm with -e zeroes after the point, -3 < e <= 0.
+         */
+        private void fraction(int h, int m, int e) {
+            append('0');
+            append('.');
+            for (; e < 0; e++) {
+                append('0');
+            }
+            appendDigit(h);
+            append8Digits(m);
+        }
+
+        private void scientific(int h, int m) {
+            appendDigit(h);
+            append('.');
+            append8Digits(m);
+        }
+
+        private void lowDigits(int l) {
+            if (l != 0) {
+                append8Digits(l);
+            }
+            removeTrailingZeroes();
+        }
+
+        /**
+         * Writes the eight digits of m, left to right, as algorithm 1 of
+         * Bouvier and Zimmermann, "Division-free binary-to-decimal
+         * conversion", does with b = 10, k = 8 and n = 28.
+         */
+        private void append8Digits(int m) {
+            int y = y(m);
+            for (int i = 0; i < 8; i++) {
+                int t = 10 * y;
+                appendDigit(t >>> 28);
+                y = t & MASK_28;
+            }
+        }
+
+        /**
+         * Removes the zeroes at the end, but keeps one after the point.
+         */
+        private void removeTrailingZeroes() {
+            while (buffer[index - 1] == '0') {
+                index--;
+            }
+            if (buffer[index - 1] == '.') {
+                index++;
+            }
+        }
+
+        private static int y(int a) {
+            return (int) (Math.multiplyHigh((long) (a + 1) << 28, 193_428_131_138_340_668L) >>> 20) - 1;
+        }
+
+        private void exponent(int e) {
+            append('E');
+            if (e < 0) {
+                append('-');
+                e = -e;
+            }
+            if (e < 10) {
+                appendDigit(e);
+                return;
+            }
+            if (e >= 100) {
+                int d = e * 1_311 >>> 17;
+                appendDigit(d);
+                e -= 100 * d;
+            }
+            buffer[index++] = DIGIT_PAIRS[2 * e];
+            buffer[index++] = DIGIT_PAIRS[2 * e + 1];
+        }
+
+        private int zero() {
+            append('0');
+            append('.');
+            append('0');
+            return index;
+        }
+
+        private int special(boolean nan, boolean positive) {
+            String text = nan ? "NaN" : positive ? "Infinity" : "-Infinity";
+            for (int i = 0; i < text.length(); i++) {
+                append(text.charAt(i));
+            }
+            return index;
+        }
+
+        private void append(char c) {
+            buffer[index++] = (byte) c;
+        }
+
+        private void appendDigit(int d) {
+            buffer[index++] = (byte) ('0' + d);
+        }
+    }
+}
@@ -1,9 +1,5 @@
 package no.foundation.serializer;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
-import java.util.List;
-import no.foundation.serializer.JsonToken.TokenType;
 import no.foundation.serializer.exceptions.JsonException;
 import no.foundation.serializer.tree.JsonArray;
 import no.foundation.serializer.tree.JsonNode;
@@ -12,90 +8,182 @@ import no.foundation.serializer.tree.JsonValue;
 
 final class JsonParser {
 
-    private final List<JsonToken> tokens;
-    private int index;
+    private final JsonLexer lexer;
+    private final NumberMode numberMode;
+    private final KeyTable keys;
+    private final byte[] source;
 
-    JsonParser(List<JsonToken> tokens) {
-        this.tokens = tokens;
-        this.index = 0;
+    /**
+     * Constructs a parser that canonicalizes member names through the given
+     * table, or allocates a new name every time if it is null.
+     */
+    JsonParser(JsonLexer lexer, NumberMode numberMode, KeyTable keys) {
+        this.lexer = lexer;
+        this.numberMode = numberMode;
+        this.keys = keys;
+        this.source = null;
+    }
+
+    /**
+     * Constructs a parser that only parses the top-level value of the given
+     * range. Nested objects and arrays are skipped and become deferred nodes
+     * that parse the same way, from their own range, when first accessed.
+     * Those nodes may be accessed from any thread, so they do not share the
+     * name table.
+     */
+    JsonParser(byte[] source, int offset, int length, NumberMode numberMode, KeyTable keys) {
+        this.lexer = new Utf8Lexer(source, offset, length);
+        this.numberMode = numberMode;
+        this.keys = keys;
+        this.source = source;
     }
 
     JsonNode parse() {
-        JsonNode node = parseValue();
-        this.index = 0;
-        return node;
-    }
-
-    private JsonNode parseValue() {
-        if (check(TokenType.LEFT_BRACE)) {
-            return parseObject();
-        } else if (check(TokenType.LEFT_BRACKET)) {
-            return parseArray();
-        } else if (check(TokenType.STRING)) {
-            String value = expect(TokenType.STRING).value();
-            return new JsonValue<>(value);
-        } else if (check(TokenType.NUMBER)) {
-            String value = expect(TokenType.NUMBER).value();
-            return new JsonValue<>(parseNumber(value));
-        } else if (check(TokenType.TRUE)) {
-            String value = expect(TokenType.TRUE).value();
-            return new JsonValue<>(Boolean.parseBoolean(value));
-        } else if (check(TokenType.FALSE)) {
-            String value = expect(TokenType.FALSE).value();
-            return new JsonValue<>(Boolean.parseBoolean(value));
-        } else if (check(TokenType.NULL)) {
-            expect(TokenType.NULL);
-            return new JsonValue<>(null);
-        } else {
-            TokenType type = tokens.get(index).type();
-            throw new JsonException("Unexpected token: " + type);
+        return parseValue(Projection.ALL);
+    }
+
+    /**
+     * Parses the next value, keeping only the object members the projection
+     * asks for. The values of all other members are skipped without being
+     * materialized, and the skipped members are left out of the tree.
+     */
+    JsonNode parse(Projection projection) {
+        return parseValue(projection);
+    }
+
+    /**
+     * Checks that nothing but whitespace follows the value parsed last, as
+     * when that value is a whole document.
+     */
+    void expectEnd() {
+        if (!check(JsonToken.EOF)) {
+            throw new JsonException("Unexpected token after value: " + lexer.peek());
         }
     }
 
-    private JsonObject parseObject() {
-        expect(TokenType.LEFT_BRACE);
+    private JsonNode parseMember(Projection projection) {
+        if (source != null && (check(JsonToken.LEFT_BRACE) || check(JsonToken.LEFT_BRACKET))) {
+            return parseDeferred();
+        }
+        return parseValue(projection);
+    }
+
+    private JsonNode parseDeferred() {
+        boolean object = check(JsonToken.LEFT_BRACE);
+        int offset = lexer.start;
+        int length = ((Utf8Lexer) lexer).skipContainer() - offset;
+        byte[] src = source;
+        NumberMode mode = numberMode;
+        if (object) {
+            return JsonObject.deferred(() -> {
+                JsonParser parser = new JsonParser(src, offset, length, mode, null);
+                return parser.parseObject(Projection.ALL).getPairs();
+            });
+        }
+        return JsonArray.deferred(() -> {
+            JsonParser parser = new JsonParser(src, offset, length, mode, null);
+            return parser.parseArray(Projection.ALL).getValues();
+        });
+    }
+
+    private JsonNode parseValue(Projection projection) {
+        JsonToken type = lexer.peek();
+        return switch (type) {
+            case LEFT_BRACE ->
+                parseObject(projection);
+            case LEFT_BRACKET ->
+                parseArray(projection);
+            case STRING ->
+                new JsonValue<>(expectValue(JsonToken.STRING));
+            case NUMBER ->
+                new JsonValue<>(parseNumber());
+            case TRUE -> {
+                expect(JsonToken.TRUE);
+                yield new JsonValue<>(true);
+            }
+            case FALSE -> {
+                expect(JsonToken.FALSE);
+                yield new JsonValue<>(false);
+            }
+            case NULL -> {
+                expect(JsonToken.NULL);
+                yield new JsonValue<>(null);
+            }
+            default ->
+                throw new JsonException("Unexpected token: " + type);
+        };
+    }
+
+    private JsonObject parseObject(Projection projection) {
+        expect(JsonToken.LEFT_BRACE);
         JsonObject obj = new JsonObject();
-        while (!check(TokenType.RIGHT_BRACE)) {
-            String key = expect(TokenType.STRING).value();
-            expect(TokenType.COLON);
-            obj.put(key, parseValue());
-            if (!check(TokenType.RIGHT_BRACE)) {
-                expect(TokenType.COMMA);
+        while (!check(JsonToken.RIGHT_BRACE)) {
+            String key = parseKey();
+            expect(JsonToken.COLON);
+            Projection member = projection.member(key);
+            if (member != null) {
+                obj.put(key, parseMember(member));
+            } else {
+                lexer.skipValue();
+            }
+            if (!check(JsonToken.RIGHT_BRACE)) {
+                expect(JsonToken.COMMA);
             }
         }
-        expect(TokenType.RIGHT_BRACE);
+        expect(JsonToken.RIGHT_BRACE);
         return obj;
     }
 
-    private JsonArray parseArray() {
-        expect(TokenType.LEFT_BRACKET);
+    private JsonArray parseArray(Projection projection) {
+        expect(JsonToken.LEFT_BRACKET);
         JsonArray array = new JsonArray();
-        while (!check(TokenType.RIGHT_BRACKET)) {
-            array.add(parseValue());
-            if (!check(TokenType.RIGHT_BRACKET)) {
-                expect(TokenType.COMMA);
+        while (!check(JsonToken.RIGHT_BRACKET)) {
+            array.add(parseMember(projection));
+            if (!check(JsonToken.RIGHT_BRACKET)) {
+                expect(JsonToken.COMMA);
             }
         }
-        expect(TokenType.RIGHT_BRACKET);
+        expect(JsonToken.RIGHT_BRACKET);
         return array;
     }
 
-    private Number parseNumber(String value) {
-        return value.contains(".")
-                ? new BigDecimal(value)
-                : new BigInteger(value);
+    private Number parseNumber() {
+        verify(JsonToken.NUMBER);
+        Number value = lexer.number(numberMode);
+        lexer.consume();
+        return value;
+    }
+
+    private String parseKey() {
+        if (keys == null) {
+            return expectValue(JsonToken.STRING);
+        }
+        verify(JsonToken.STRING);
+        String key = lexer.key(keys);
+        lexer.consume();
+        return key;
+    }
+
+    private String expectValue(JsonToken type) {
+        verify(type);
+        String value = lexer.value();
+        lexer.consume();
+        return value;
+    }
+
+    private void expect(JsonToken type) {
+        verify(type);
+        lexer.consume();
     }
 
-    private JsonToken expect(TokenType type) {
+    private void verify(JsonToken type) {
         if (!check(type)) {
-            TokenType token = tokens.get(index).type();
-            String message = "Expected Token %s but found %s".formatted(type, token);
+            String message = "Expected Token %s but found %s".formatted(type, lexer.peek());
             throw new JsonException(message);
         }
-        return tokens.get(index++);
     }
 
-    private boolean check(TokenType type) {
-        return index < tokens.size() && tokens.get(index).type() == type;
+    private boolean check(JsonToken type) {
+        return lexer.peek() == type;
     }
 }
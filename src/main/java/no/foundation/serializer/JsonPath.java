@@ -0,0 +1,396 @@
+package no.foundation.serializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import no.foundation.serializer.JsonReader.Token;
+import no.foundation.serializer.exceptions.JsonException;
+import no.foundation.serializer.tree.JsonArray;
+import no.foundation.serializer.tree.JsonNode;
+import no.foundation.serializer.tree.JsonObject;
+
+/**
+ * Compiled JSONPath expression that is evaluated against the tokens of a
+ * {@link JsonReader}, without building a tree of the document. Only matched
+ * values are read as trees; everything else is stepped over or skipped, so
+ * memory stays proportional to the nesting depth of the document and the size
+ * of the matches.
+ * <p>
+ * The supported subset is the root {@code $} followed by any of:
+ * <ul>
+ * <li>child members: {@code .name} or {@code ['name']};</li>
+ * <li>wildcards: {@code .*} or {@code [*]}, matching every member or
+ * element;</li>
+ * <li>array indexes and slices: {@code [2]} or {@code [start:end:step]}, with
+ * non-negative bounds, since the length of an array is not known while it is
+ * being read;</li>
+ * <li>recursive descent: {@code ..name}, {@code ..*} or {@code ..[2]},
+ * matching at any depth below.</li>
+ * </ul>
+ * Matches are reported in document order, an enclosing match before the
+ * matches nested in it. Instances are immutable and thread-safe.
+ */
+public final class JsonPath {
+
+    private static final int MAX_SEGMENTS = Long.SIZE - 1;
+
+    private final String expression;
+    private final Segment[] segments;
+    private final long accept;
+
+    private JsonPath(String expression, Segment[] segments) {
+        this.expression = expression;
+        this.segments = segments;
+        this.accept = 1L << segments.length;
+    }
+
+    /**
+     * Compiles a JSONPath expression.
+     *
+     * @param expression the expression, starting with {@code $}.
+     * @return the compiled path.
+     * @throws IllegalArgumentException if the expression is malformed or
+     * outside the supported subset.
+     */
+    public static JsonPath compile(String expression) {
+        return new JsonPath(expression, new Compiler(Objects.requireNonNull(expression)).compile());
+    }
+
+    /**
+     * Reads the next value from the reader and passes every match of this
+     * path in it to the action, as soon as it is found.
+     *
+     * @param reader the reader to take the value from.
+     * @param action the action to perform on each match.
+     * @return the number of matches.
+     * @throws JsonException if the input is not well-formed JSON.
+     * @throws IOException if an I/O error occurs.
+     */
+    public long select(JsonReader reader, Consumer<? super JsonNode> action) throws JsonException, IOException {
+        return select(reader, Long.MAX_VALUE, action);
+    }
+
+    /**
+     * Reads the next value from the reader and passes the matches of this
+     * path in it to the action, as soon as they are found, stopping once the
+     * limit is reached. The rest of the input is then left unread, so the
+     * reader should be closed rather than read further.
+     *
+     * @param reader the reader to take the value from.
+     * @param limit the maximum number of matches.
+     * @param action the action to perform on each match.
+     * @return the number of matches.
+     * @throws JsonException if the input is not well-formed JSON.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalArgumentException if the limit is negative.
+     */
+    public long select(JsonReader reader, long limit, Consumer<? super JsonNode> action) throws JsonException, IOException {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative: " + limit);
+        }
+        Evaluation evaluation = new Evaluation(limit, Objects.requireNonNull(action));
+        Token token = reader.nextToken();
+        if (limit > 0 && token != Token.END_DOCUMENT) {
+            evaluation.visit(reader, 1L);
+        }
+        return evaluation.count;
+    }
+
+    /**
+     * Returns the expression this path was compiled from.
+     *
+     * @return the expression.
+     */
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    /**
+     * Returns the states reached in a member or element of a value that is
+     * in the given states. State {@code i} means that the first {@code i}
+     * segments have matched; a descendant segment also stays in its state for
+     * every level below.
+     */
+    private long step(long states, String name, int index) {
+        long next = 0;
+        for (long rest = states & ~accept; rest != 0; rest &= rest - 1) {
+            int i = Long.numberOfTrailingZeros(rest);
+            Segment segment = segments[i];
+            if (segment.matches(name, index)) {
+                next |= 1L << i + 1;
+            }
+            if (segment.descendant()) {
+                next |= 1L << i;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Returns whether elements at or after the given index of an array in the
+     * given states can still match.
+     */
+    private boolean reachable(long states, int index) {
+        for (long rest = states & ~accept; rest != 0; rest &= rest - 1) {
+            Segment segment = segments[Long.numberOfTrailingZeros(rest)];
+            if (segment.descendant() || segment.name() != null || index < segment.end()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A single selector of the path. A name selector has a non-null name; a
+     * wildcard is an unbounded slice that also matches every member name.
+     */
+    private record Segment(boolean descendant, String name, boolean wildcard, int start, int end, int step) {
+
+        boolean matches(String member, int index) {
+            if (wildcard) {
+                return true;
+            } else if (name != null) {
+                return name.equals(member);
+            }
+            return index >= start && index < end && (index - start) % step == 0;
+        }
+    }
+
+    /**
+     * The state of one call to {@link #select(JsonReader, long, Consumer)}.
+     */
+    private final class Evaluation {
+
+        private final long limit;
+        private final Consumer<? super JsonNode> action;
+        private long count;
+
+        Evaluation(long limit, Consumer<? super JsonNode> action) {
+            this.limit = limit;
+            this.action = action;
+        }
+
+        /**
+         * Visits the value the reader is positioned on, which is in the given
+         * states, and returns false once the limit is reached.
+         */
+        boolean visit(JsonReader reader, long states) throws IOException {
+            if ((states & accept) != 0) {
+                JsonNode node = reader.readNode();
+                return emit(node) && walk(node, states);
+            }
+            Token token = reader.currentToken();
+            if (token == Token.BEGIN_OBJECT) {
+                while (reader.nextToken() == Token.NAME) {
+                    long next = step(states, reader.currentName(), -1);
+                    reader.nextToken();
+                    if (next == 0) {
+                        reader.skipChildren();
+                    } else if (!visit(reader, next)) {
+                        return false;
+                    }
+                }
+            } else if (token == Token.BEGIN_ARRAY) {
+                for (int index = 0; reader.nextToken() != Token.END_ARRAY; index++) {
+                    long next = step(states, null, index);
+                    if (next != 0) {
+                        if (!visit(reader, next)) {
+                            return false;
+                        }
+                    } else if (reachable(states, index)) {
+                        reader.skipChildren();
+                    } else {
+                        reader.skipChildren();
+                        skipRest(reader);
+                        break;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Looks for further matches inside a value that has already been read
+         * as a tree because it matched itself.
+         */
+        private boolean walk(JsonNode node, long states) {
+            if (node instanceof JsonObject object) {
+                for (Map.Entry<String, JsonNode> member : object.entrySet()) {
+                    if (!walkChild(member.getValue(), step(states, member.getKey(), -1))) {
+                        return false;
+                    }
+                }
+            } else if (node instanceof JsonArray array) {
+                for (int index = 0; index < array.size(); index++) {
+                    if (!walkChild(array.get(index), step(states, null, index))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private boolean walkChild(JsonNode node, long states) {
+            if (states == 0) {
+                return true;
+            } else if ((states & accept) != 0 && !emit(node)) {
+                return false;
+            }
+            return walk(node, states);
+        }
+
+        private boolean emit(JsonNode node) {
+            action.accept(node);
+            return ++count < limit;
+        }
+
+        private void skipRest(JsonReader reader) throws IOException {
+            while (reader.nextToken() != Token.END_ARRAY) {
+                reader.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Parses an expression into its segments.
+     */
+    private static final class Compiler {
+
+        private final String expression;
+        private int position;
+
+        Compiler(String expression) {
+            this.expression = expression;
+        }
+
+        Segment[] compile() {
+            if (!expression.startsWith("$")) {
+                throw error("must start with '$'");
+            }
+            position = 1;
+            List<Segment> segments = new ArrayList<>();
+            while (position < expression.length()) {
+                boolean descendant = false;
+                if (expression.startsWith("..", position)) {
+                    descendant = true;
+                    position += 2;
+                } else if (expression.charAt(position) == '.') {
+                    position++;
+                }
+                if (position < expression.length() && expression.charAt(position) == '[') {
+                    segments.add(bracket(descendant));
+                } else if (descendant || expression.charAt(position - 1) == '.') {
+                    segments.add(dotted(descendant));
+                } else {
+                    throw error("unexpected '%c'".formatted(expression.charAt(position)));
+                }
+            }
+            if (segments.size() > MAX_SEGMENTS) {
+                throw error("more than %d segments".formatted(MAX_SEGMENTS));
+            }
+            return segments.toArray(Segment[]::new);
+        }
+
+        private Segment dotted(boolean descendant) {
+            int from = position;
+            while (position < expression.length() && ".[".indexOf(expression.charAt(position)) < 0) {
+                position++;
+            }
+            String name = expression.substring(from, position);
+            if (name.isEmpty()) {
+                throw error("empty member name");
+            }
+            return name.equals("*") ? wildcard(descendant) : new Segment(descendant, name, false, 0, 0, 1);
+        }
+
+        private Segment bracket(boolean descendant) {
+            position++;
+            Segment segment;
+            if (position < expression.length() && (expression.charAt(position) == '\'' || expression.charAt(position) == '"')) {
+                segment = new Segment(descendant, quoted(), false, 0, 0, 1);
+            } else if (expression.startsWith("*", position)) {
+                position++;
+                segment = wildcard(descendant);
+            } else {
+                segment = slice(descendant);
+            }
+            if (!expression.startsWith("]", position)) {
+                throw error("expected ']'");
+            }
+            position++;
+            return segment;
+        }
+
+        private String quoted() {
+            char quote = expression.charAt(position++);
+            StringBuilder sb = new StringBuilder();
+            while (position < expression.length() && expression.charAt(position) != quote) {
+                char c = expression.charAt(position++);
+                if (c == '\\' && position < expression.length()) {
+                    c = expression.charAt(position++);
+                }
+                sb.append(c);
+            }
+            if (position++ == expression.length()) {
+                throw error("unterminated name");
+            }
+            return sb.toString();
+        }
+
+        private Segment slice(boolean descendant) {
+            int start = number(-1);
+            if (!expression.startsWith(":", position)) {
+                if (start == -1) {
+                    throw error("expected an index");
+                }
+                return new Segment(descendant, null, false, start, start + 1, 1);
+            }
+            start = Math.max(start, 0);
+            position++;
+            int end = number(Integer.MAX_VALUE);
+            int step = 1;
+            if (expression.startsWith(":", position)) {
+                position++;
+                step = number(1);
+                if (step == 0) {
+                    throw error("slice step must not be zero");
+                }
+            }
+            return new Segment(descendant, null, false, start, end, step);
+        }
+
+        /**
+         * Parses a non-negative number, returning the default if there is
+         * none.
+         */
+        private int number(int absent) {
+            if (expression.startsWith("-", position)) {
+                throw error("negative indexes and steps are not supported when streaming");
+            }
+            int from = position;
+            while (position < expression.length() && Character.isDigit(expression.charAt(position))) {
+                position++;
+            }
+            if (from == position) {
+                return absent;
+            }
+            try {
+                return Integer.parseInt(expression, from, position, 10);
+            } catch (NumberFormatException e) {
+                throw error("index out of range");
+            }
+        }
+
+        private Segment wildcard(boolean descendant) {
+            return new Segment(descendant, null, true, 0, Integer.MAX_VALUE, 1);
+        }
+
+        private IllegalArgumentException error(String problem) {
+            return new IllegalArgumentException("Invalid JSONPath %s at %d: %s".formatted(expression, position, problem));
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package no.foundation.serializer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Objects;
+import no.foundation.serializer.JsonReader.Token;
+import no.foundation.serializer.exceptions.JsonException;
+import no.foundation.serializer.tree.JsonArray;
+import no.foundation.serializer.tree.JsonNode;
+import no.foundation.serializer.tree.JsonObject;
+import no.foundation.serializer.tree.JsonValue;
+
+/**
+ * Non-blocking parser for UTF-8 JSON that arrives in chunks. Input is handed
+ * over with {@link #feed(ByteBuffer)} as it is received, and tokens or whole
+ * values are polled with {@link #nextToken()} or {@link #nextNode()}, which
+ * return {@code null} instead of blocking when the input fed so far ends in
+ * the middle of a token or value. The parser state is kept between chunks,
+ * and only the bytes of the token that is cut off are retained, never the
+ * whole document.
+ * <p>
+ * Any number of top-level values may follow each other, separated by
+ * whitespace. Once {@link #endOfInput()} has been called,
+ * {@link Token#END_DOCUMENT} is reported after the last of them.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public final class JsonPushParser {
+
+    private static final int ROOT = 0;
+    private static final int ARRAY_EMPTY = 1;
+    private static final int ARRAY_VALUE = 2;
+    private static final int ARRAY_NEXT = 3;
+    private static final int OBJECT_EMPTY = 4;
+    private static final int OBJECT_NAME = 5;
+    private static final int OBJECT_COLON = 6;
+    private static final int OBJECT_VALUE = 7;
+    private static final int OBJECT_NEXT = 8;
+
+    private final Utf8Lexer lexer;
+    private final KeyTable keys;
+    private final Deque<JsonNode> containers;
+    private int[] stack;
+    private String[] names;
+    private int depth;
+    private boolean pending;
+    private boolean ended;
+    private Token token;
+
+    /**
+     * Constructs a parser that has not been fed any input yet.
+     */
+    public JsonPushParser() {
+        this.lexer = new Utf8Lexer();
+        this.keys = new KeyTable(KeyTable.DEFAULT_CAPACITY);
+        this.containers = new ArrayDeque<>();
+        this.stack = new int[16];
+        this.names = new String[16];
+    }
+
+    /**
+     * Hands the remaining bytes of the chunk to the parser. The bytes are
+     * copied, so the buffer may be reused as soon as this method returns.
+     *
+     * @param chunk the next part of the input.
+     * @throws JsonException if {@link #endOfInput()} was already called.
+     */
+    public void feed(ByteBuffer chunk) throws JsonException {
+        if (ended) {
+            throw new JsonException("Input has already ended");
+        }
+        lexer.feed(Objects.requireNonNull(chunk));
+    }
+
+    /**
+     * Signals that no more input will be fed, so that a number at the end of
+     * the input can be completed and a truncated value reported as an error.
+     */
+    public void endOfInput() {
+        ended = true;
+        lexer.endOfInput();
+    }
+
+    /**
+     * Advances to the next token.
+     *
+     * @return the new current token, {@link Token#END_DOCUMENT} once all the
+     * input has been parsed, or {@code null} if more input has to be fed
+     * first.
+     * @throws JsonException if the input is not well-formed JSON, or a value
+     * is being assembled by {@link #nextNode()}.
+     */
+    public Token nextToken() throws JsonException {
+        if (!containers.isEmpty()) {
+            throw new JsonException("A value is being assembled by nextNode()");
+        }
+        return advance();
+    }
+
+    /**
+     * Parses the next complete top-level value as a tree. A value that is cut
+     * off by the end of the input fed so far is kept and continued by the
+     * next call.
+     *
+     * @return the next value, or {@code null} if more input has to be fed
+     * first or all the input has been parsed.
+     * @throws JsonException if the input is not well-formed JSON, or the
+     * parser is positioned inside a value read through {@link #nextToken()}.
+     */
+    public JsonNode nextNode() throws JsonException {
+        if (containers.isEmpty() && depth > 0) {
+            throw new JsonException("nextNode() can only start at the top level");
+        }
+        while (true) {
+            Token next = advance();
+            if (next == null || next == Token.END_DOCUMENT) {
+                return null;
+            }
+            JsonNode node = switch (next) {
+                case BEGIN_OBJECT ->
+                    new JsonObject();
+                case BEGIN_ARRAY ->
+                    new JsonArray();
+                case STRING ->
+                    new JsonValue<>(lexer.value());
+                case NUMBER ->
+                    new JsonValue<>(getNumber());
+                case TRUE, FALSE ->
+                    new JsonValue<>(getBoolean());
+                case NULL ->
+                    new JsonValue<>(null);
+                default ->
+                    null;
+            };
+            if (next == Token.END_OBJECT || next == Token.END_ARRAY) {
+                JsonNode container = containers.pop();
+                if (containers.isEmpty()) {
+                    return container;
+                }
+            } else if (node != null) {
+                JsonNode parent = containers.peek();
+                if (parent instanceof JsonObject object) {
+                    object.put(currentName(), node);
+                } else if (parent instanceof JsonArray array) {
+                    array.add(node);
+                }
+                if (next == Token.BEGIN_OBJECT || next == Token.BEGIN_ARRAY) {
+                    containers.push(node);
+                } else if (parent == null) {
+                    return node;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the token the parser is positioned on.
+     *
+     * @return the current token, or {@code null} before the first token.
+     */
+    public Token currentToken() {
+        return token;
+    }
+
+    /**
+     * Returns the name of the object member the parser is positioned on, as
+     * {@link JsonReader#currentName()} does.
+     *
+     * @return the current member name, or {@code null} outside of objects.
+     */
+    public String currentName() {
+        if (token == Token.NAME) {
+            materializeName();
+        } else if (token == Token.BEGIN_OBJECT || token == Token.BEGIN_ARRAY) {
+            return names[depth - 1];
+        }
+        return names[depth];
+    }
+
+    /**
+     * Returns the text of the current string, name or number token.
+     *
+     * @return the text of the current token.
+     * @throws JsonException if the current token has no text.
+     */
+    public String getString() throws JsonException {
+        if (token == Token.NAME) {
+            return currentName();
+        }
+        if (token != Token.STRING && token != Token.NUMBER) {
+            throw new JsonException("Current token %s has no text".formatted(token));
+        }
+        return lexer.value();
+    }
+
+    /**
+     * Returns the current number token as a {@link BigInteger} or a
+     * {@link BigDecimal}, depending on whether it has a fraction or exponent.
+     *
+     * @return the value of the current number token.
+     * @throws JsonException if the current token is not a number.
+     */
+    public Number getNumber() throws JsonException {
+        return getNumber(NumberMode.BIG_DECIMAL);
+    }
+
+    /**
+     * Returns the current number token as the type chosen by the given mode.
+     *
+     * @param mode the kind of {@link Number} to produce.
+     * @return the value of the current number token.
+     * @throws JsonException if the current token is not a number.
+     */
+    public Number getNumber(NumberMode mode) throws JsonException {
+        if (token != Token.NUMBER) {
+            throw new JsonException("Current token %s is not a number".formatted(token));
+        }
+        return lexer.number(Objects.requireNonNull(mode));
+    }
+
+    /**
+     * Returns the value of the current {@link Token#TRUE} or
+     * {@link Token#FALSE} token.
+     *
+     * @return the value of the current boolean token.
+     * @throws JsonException if the current token is not a boolean.
+     */
+    public boolean getBoolean() throws JsonException {
+        if (token != Token.TRUE && token != Token.FALSE) {
+            throw new JsonException("Current token %s is not a boolean".formatted(token));
+        }
+        return token == Token.TRUE;
+    }
+
+    /**
+     * Moves to the next token. Every state consumes exactly one lexer token,
+     * and only after it has been scanned completely, so running out of input
+     * leaves the state untouched and the same step is simply retried.
+     */
+    private Token advance() {
+        release();
+        try {
+            while (true) {
+                JsonToken next = lexer.peek();
+                Token result = switch (stack[depth]) {
+                    case ARRAY_EMPTY, ARRAY_VALUE -> {
+                        if (next == JsonToken.RIGHT_BRACKET) {
+                            yield end(Token.END_ARRAY);
+                        } else if (stack[depth] == ARRAY_EMPTY) {
+                            yield value(next, ARRAY_VALUE);
+                        }
+                        separator(next, JsonToken.COMMA, ARRAY_NEXT);
+                        yield null;
+                    }
+                    case ARRAY_NEXT ->
+                        value(next, ARRAY_VALUE);
+                    case OBJECT_EMPTY, OBJECT_VALUE -> {
+                        if (next == JsonToken.RIGHT_BRACE) {
+                            yield end(Token.END_OBJECT);
+                        } else if (stack[depth] == OBJECT_EMPTY) {
+                            yield name(next);
+                        }
+                        separator(next, JsonToken.COMMA, OBJECT_NEXT);
+                        yield null;
+                    }
+                    case OBJECT_NEXT ->
+                        name(next);
+                    case OBJECT_NAME -> {
+                        separator(next, JsonToken.COLON, OBJECT_COLON);
+                        yield null;
+                    }
+                    case OBJECT_COLON ->
+                        value(next, OBJECT_VALUE);
+                    default ->
+                        next == JsonToken.EOF ? Token.END_DOCUMENT : value(next, ROOT);
+                };
+                if (result != null) {
+                    token = result;
+                    return result;
+                }
+            }
+        } catch (Utf8Lexer.NeedMoreInput e) {
+            lexer.rewind();
+            return null;
+        }
+    }
+
+    private Token value(JsonToken next, int state) {
+        stack[depth] = state;
+        Token result = switch (next) {
+            case LEFT_BRACE -> {
+                push(OBJECT_EMPTY);
+                yield Token.BEGIN_OBJECT;
+            }
+            case LEFT_BRACKET -> {
+                push(ARRAY_EMPTY);
+                yield Token.BEGIN_ARRAY;
+            }
+            case STRING ->
+                Token.STRING;
+            case NUMBER ->
+                Token.NUMBER;
+            case TRUE ->
+                Token.TRUE;
+            case FALSE ->
+                Token.FALSE;
+            case NULL ->
+                Token.NULL;
+            default ->
+                throw new JsonException("Unexpected token: " + next);
+        };
+        pending = true;
+        return result;
+    }
+
+    private Token name(JsonToken next) {
+        if (next != JsonToken.STRING) {
+            throw new JsonException("Expected Token %s but found %s".formatted(JsonToken.STRING, next));
+        }
+        stack[depth] = OBJECT_NAME;
+        names[depth] = null;
+        pending = true;
+        return Token.NAME;
+    }
+
+    private void separator(JsonToken next, JsonToken expected, int state) {
+        if (next != expected) {
+            throw new JsonException("Expected Token %s but found %s".formatted(expected, next));
+        }
+        lexer.consume();
+        stack[depth] = state;
+    }
+
+    private Token end(Token result) {
+        lexer.consume();
+        names[depth] = null;
+        depth--;
+        return result;
+    }
+
+    private void push(int state) {
+        if (++depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+            names = Arrays.copyOf(names, depth * 2);
+        }
+        stack[depth] = state;
+        names[depth] = null;
+    }
+
+    private void release() {
+        if (pending) {
+            if (token == Token.NAME) {
+                materializeName();
+            }
+            lexer.consume();
+            pending = false;
+        }
+    }
+
+    private void materializeName() {
+        if (pending && names[depth] == null) {
+            names[depth] = lexer.key(keys);
+        }
+    }
+}
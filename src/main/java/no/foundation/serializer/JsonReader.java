@@ -0,0 +1,425 @@
+package no.foundation.serializer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Objects;
+import no.foundation.serializer.exceptions.JsonException;
+import no.foundation.serializer.tree.JsonNode;
+import no.foundation.serializer.tree.JsonValue;
+
+/**
+ * Pull parser that reads a JSON document one token at a time. The input is
+ * consumed through a bounded buffer that is refilled on demand, so documents of
+ * any size can be processed with memory proportional to their nesting depth.
+ * Values are only copied out of the buffer when one of the getters asks for
+ * them.
+ */
+public final class JsonReader implements Closeable {
+
+    private static final int ROOT = 0;
+    private static final int ARRAY_EMPTY = 1;
+    private static final int ARRAY_VALUE = 2;
+    private static final int OBJECT_EMPTY = 3;
+    private static final int OBJECT_NAME = 4;
+    private static final int OBJECT_VALUE = 5;
+
+    private final Closeable source;
+    private final JsonLexer lexer;
+    private final KeyTable keys;
+    private int[] stack;
+    private String[] names;
+    private int depth;
+    private boolean pending;
+    private Token token;
+
+    /**
+     * Constructs a reader over the given character stream.
+     *
+     * @param reader the source of the JSON document.
+     */
+    public JsonReader(Reader reader) {
+        this(reader, new CharLexer(Objects.requireNonNull(reader)));
+    }
+
+    /**
+     * Constructs a reader over the given UTF-8 encoded byte stream. The bytes
+     * are scanned directly, without decoding them to characters first.
+     *
+     * @param stream the source of the JSON document.
+     */
+    public JsonReader(InputStream stream) {
+        this(stream, new Utf8Lexer(Objects.requireNonNull(stream)));
+    }
+
+    private JsonReader(Closeable source, JsonLexer lexer) {
+        this.source = source;
+        this.lexer = lexer;
+        this.keys = new KeyTable(KeyTable.DEFAULT_CAPACITY);
+        this.stack = new int[16];
+        this.names = new String[16];
+    }
+
+    /**
+     * Advances to the next token of the document.
+     *
+     * @return the new current token, or {@link Token#END_DOCUMENT} once the
+     * input is exhausted.
+     * @throws JsonException if the input is not well-formed JSON.
+     * @throws IOException if an I/O error occurs.
+     */
+    public Token nextToken() throws JsonException, IOException {
+        try {
+            release();
+            token = switch (stack[depth]) {
+                case OBJECT_EMPTY, OBJECT_VALUE -> {
+                    if (check(JsonToken.RIGHT_BRACE)) {
+                        yield end(Token.END_OBJECT);
+                    }
+                    if (stack[depth] == OBJECT_VALUE) {
+                        expect(JsonToken.COMMA);
+                    }
+                    verify(JsonToken.STRING);
+                    stack[depth] = OBJECT_NAME;
+                    names[depth] = null;
+                    pending = true;
+                    yield Token.NAME;
+                }
+                case ARRAY_EMPTY, ARRAY_VALUE -> {
+                    if (check(JsonToken.RIGHT_BRACKET)) {
+                        yield end(Token.END_ARRAY);
+                    }
+                    if (stack[depth] == ARRAY_VALUE) {
+                        expect(JsonToken.COMMA);
+                    }
+                    yield value(ARRAY_VALUE);
+                }
+                case OBJECT_NAME -> {
+                    expect(JsonToken.COLON);
+                    yield value(OBJECT_VALUE);
+                }
+                default ->
+                    check(JsonToken.EOF) ? Token.END_DOCUMENT : value(ROOT);
+            };
+            return token;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns the token the reader is positioned on.
+     *
+     * @return the current token, or {@code null} before the first call to
+     * {@link #nextToken()}.
+     */
+    public Token currentToken() {
+        return token;
+    }
+
+    /**
+     * Returns the name of the object member the reader is positioned on. This
+     * is the name itself for {@link Token#NAME} and the name the value belongs
+     * to for any token inside an object.
+     *
+     * @return the current member name, or {@code null} outside of objects.
+     */
+    public String currentName() {
+        if (token == Token.NAME) {
+            materializeName();
+        } else if (token == Token.BEGIN_OBJECT || token == Token.BEGIN_ARRAY) {
+            return names[depth - 1];
+        }
+        return names[depth];
+    }
+
+    /**
+     * Returns the text of the current string, name or number token.
+     *
+     * @return the text of the current token.
+     * @throws JsonException if the current token has no text.
+     */
+    public String getString() throws JsonException {
+        if (token == Token.NAME) {
+            return currentName();
+        }
+        if (token != Token.STRING && token != Token.NUMBER) {
+            throw new JsonException("Current token %s has no text".formatted(token));
+        }
+        return lexer.value();
+    }
+
+    /**
+     * Returns the current number token as a {@link BigInteger} or a
+     * {@link BigDecimal}, depending on whether it has a fraction or exponent.
+     *
+     * @return the value of the current number token.
+     * @throws JsonException if the current token is not a number.
+     */
+    public Number getNumber() throws JsonException {
+        return getNumber(NumberMode.BIG_DECIMAL);
+    }
+
+    /**
+     * Returns the current number token as the type chosen by the given mode.
+     *
+     * @param mode the kind of {@link Number} to produce.
+     * @return the value of the current number token.
+     * @throws JsonException if the current token is not a number.
+     */
+    public Number getNumber(NumberMode mode) throws JsonException {
+        verifyNumber();
+        return lexer.number(Objects.requireNonNull(mode));
+    }
+
+    /**
+     * Returns the current number token as an {@code int}.
+     *
+     * @return the value of the current number token.
+     * @throws JsonException if the current token is not an integral number or
+     * does not fit in an {@code int}.
+     */
+    public int getInt() throws JsonException {
+        long value = getLong();
+        if (value != (int) value) {
+            throw new JsonException("Number %d is out of range of int".formatted(value));
+        }
+        return (int) value;
+    }
+
+    /**
+     * Returns the current number token as a {@code long}.
+     *
+     * @return the value of the current number token.
+     * @throws JsonException if the current token is not an integral number or
+     * does not fit in a {@code long}.
+     */
+    public long getLong() throws JsonException {
+        verifyNumber();
+        if (lexer.isDecimal()) {
+            throw new JsonException("Number %s is not integral".formatted(lexer.value()));
+        }
+        try {
+            return lexer.longValue();
+        } catch (NumberFormatException e) {
+            throw new JsonException("Number %s is out of range of long".formatted(lexer.value()), e);
+        }
+    }
+
+    /**
+     * Returns the current number token as a {@code double}.
+     *
+     * @return the value of the current number token.
+     * @throws JsonException if the current token is not a number.
+     */
+    public double getDouble() throws JsonException {
+        verifyNumber();
+        return lexer.doubleValue();
+    }
+
+    /**
+     * Returns the current number token as a {@link BigDecimal}.
+     *
+     * @return the value of the current number token.
+     * @throws JsonException if the current token is not a number.
+     */
+    public BigDecimal getBigDecimal() throws JsonException {
+        verifyNumber();
+        return new BigDecimal(lexer.value());
+    }
+
+    /**
+     * Returns the value of the current {@link Token#TRUE} or
+     * {@link Token#FALSE} token.
+     *
+     * @return the value of the current boolean token.
+     * @throws JsonException if the current token is not a boolean.
+     */
+    public boolean getBoolean() throws JsonException {
+        if (token != Token.TRUE && token != Token.FALSE) {
+            throw new JsonException("Current token %s is not a boolean".formatted(token));
+        }
+        return token == Token.TRUE;
+    }
+
+    /**
+     * Skips all the children of the current object or array, leaving the
+     * reader on the matching {@link Token#END_OBJECT} or
+     * {@link Token#END_ARRAY}. Skipped names and values are never copied out
+     * of the input buffer. Does nothing for any other token.
+     *
+     * @throws JsonException if the input ends before the container does.
+     * @throws IOException if an I/O error occurs.
+     */
+    public void skipChildren() throws JsonException, IOException {
+        if (token != Token.BEGIN_OBJECT && token != Token.BEGIN_ARRAY) {
+            return;
+        }
+        try {
+            release();
+            int level = 1;
+            while (level > 0) {
+                switch (lexer.peek()) {
+                    case LEFT_BRACE, LEFT_BRACKET ->
+                        level++;
+                    case RIGHT_BRACE, RIGHT_BRACKET ->
+                        level--;
+                    case EOF ->
+                        throw new JsonException("Unexpected end of input");
+                    default -> {
+                    }
+                }
+                lexer.consume();
+            }
+            token = token == Token.BEGIN_OBJECT ? Token.END_OBJECT : Token.END_ARRAY;
+            depth--;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads the value starting at the current token, including all of its
+     * children, as a tree. The reader is left on the last token of the value.
+     *
+     * @return the current value as a tree.
+     * @throws JsonException if the current token does not start a value or the
+     * value is not well-formed.
+     * @throws IOException if an I/O error occurs.
+     */
+    public JsonNode readNode() throws JsonException, IOException {
+        if (token == null || token == Token.NAME || token == Token.END_OBJECT
+                || token == Token.END_ARRAY || token == Token.END_DOCUMENT) {
+            throw new JsonException("Current token %s does not start a value".formatted(token));
+        }
+        if (token != Token.BEGIN_OBJECT && token != Token.BEGIN_ARRAY) {
+            return switch (token) {
+                case STRING ->
+                    new JsonValue<>(lexer.value());
+                case NUMBER ->
+                    new JsonValue<>(getNumber());
+                case NULL ->
+                    new JsonValue<>(null);
+                default ->
+                    new JsonValue<>(getBoolean());
+            };
+        }
+        try {
+            JsonNode node = new JsonParser(lexer, NumberMode.BIG_DECIMAL, keys).parse();
+            token = token == Token.BEGIN_OBJECT ? Token.END_OBJECT : Token.END_ARRAY;
+            pending = false;
+            depth--;
+            return node;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Closes the underlying input.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private Token value(int next) {
+        stack[depth] = next;
+        Token result = switch (lexer.peek()) {
+            case LEFT_BRACE -> {
+                push(OBJECT_EMPTY);
+                yield Token.BEGIN_OBJECT;
+            }
+            case LEFT_BRACKET -> {
+                push(ARRAY_EMPTY);
+                yield Token.BEGIN_ARRAY;
+            }
+            case STRING ->
+                Token.STRING;
+            case NUMBER ->
+                Token.NUMBER;
+            case TRUE ->
+                Token.TRUE;
+            case FALSE ->
+                Token.FALSE;
+            case NULL ->
+                Token.NULL;
+            default ->
+                throw new JsonException("Unexpected token: " + lexer.peek());
+        };
+        pending = true;
+        return result;
+    }
+
+    private Token end(Token result) {
+        lexer.consume();
+        names[depth] = null;
+        depth--;
+        return result;
+    }
+
+    private void push(int state) {
+        if (++depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+            names = Arrays.copyOf(names, depth * 2);
+        }
+        stack[depth] = state;
+        names[depth] = null;
+    }
+
+    private void release() {
+        if (pending) {
+            if (token == Token.NAME) {
+                materializeName();
+            }
+            lexer.consume();
+            pending = false;
+        }
+    }
+
+    private void materializeName() {
+        if (pending && names[depth] == null) {
+            names[depth] = lexer.key(keys);
+        }
+    }
+
+    private void verifyNumber() {
+        if (token != Token.NUMBER) {
+            throw new JsonException("Current token %s is not a number".formatted(token));
+        }
+    }
+
+    private void expect(JsonToken type) {
+        verify(type);
+        lexer.consume();
+    }
+
+    private void verify(JsonToken type) {
+        if (!check(type)) {
+            String message = "Expected Token %s but found %s".formatted(type, lexer.peek());
+            throw new JsonException(message);
+        }
+    }
+
+    private boolean check(JsonToken type) {
+        return lexer.peek() == type;
+    }
+
+    /**
+     * The tokens reported by {@link JsonReader#nextToken()}.
+     */
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT,
+        BEGIN_ARRAY, END_ARRAY,
+        NAME, STRING, NUMBER,
+        TRUE, FALSE, NULL,
+        END_DOCUMENT,
+    }
+}
@@ -3,8 +3,16 @@ package no.foundation.serializer;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
 import no.foundation.serializer.exceptions.JsonException;
+import no.foundation.serializer.tree.JsonArray;
 import no.foundation.serializer.tree.JsonNode;
 
 /**
@@ -20,8 +28,29 @@ public class JsonSerializer {
      * Constructs a new JsonSerializer with default encoder and decoder.
      */
     public JsonSerializer() {
-        this.encoder = new JsonEncoder();
-        this.decoder = new JsonDecoder();
+        this(new JsonSerializerBuilder());
+    }
+
+    private JsonSerializer(JsonSerializerBuilder builder) {
+        WorkerPool workers = new WorkerPool(builder.parallelism);
+        ParallelEncoder parallel = builder.parallelEncodeThreshold > 0
+                ? new ParallelEncoder(workers, builder.parallelEncodeThreshold)
+                : null;
+        this.encoder = new JsonEncoder(builder.asciiOnly, parallel);
+        StructuralIndexer indexer = builder.structuralIndex ? StructuralIndexer.create() : null;
+        KeyTable keys = builder.keyCacheSize > 0 ? new KeyTable(builder.keyCacheSize) : null;
+        this.decoder = new JsonDecoder(indexer, builder.numberMode, builder.lazy, builder.tape, builder.projection, keys,
+                workers);
+    }
+
+    /**
+     * Returns a builder to construct a JsonSerializer with non-default
+     * settings.
+     *
+     * @return a JsonSerializerBuilder instance to build a JsonSerializer.
+     */
+    public static JsonSerializerBuilder builder() {
+        return new JsonSerializerBuilder();
     }
 
     /**
@@ -67,7 +96,129 @@ public class JsonSerializer {
     }
 
     /**
-     * Decodes a JSON file to an object of the specified type.
+     * Encodes the given object as UTF-8 JSON straight to a stream. The object
+     * graph is written as it is walked, through a bounded buffer that is
+     * drained whenever it fills up, without building a tree or a string of
+     * the whole document first. The stream is flushed but not closed.
+     *
+     * @param value the object to encode.
+     * @param stream the stream to write the JSON to.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized void encode(Object value, OutputStream stream) throws IOException {
+        encoder.encode(Objects.requireNonNull(value), Objects.requireNonNull(stream), false);
+    }
+
+    /**
+     * Encodes the given object as UTF-8 JSON straight to a stream with
+     * optional formatting, as {@link #encode(Object, OutputStream)} does.
+     *
+     * @param value the object to encode.
+     * @param stream the stream to write the JSON to.
+     * @param formatted whether the JSON should be formatted.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized void encode(Object value, OutputStream stream, boolean formatted) throws IOException {
+        encoder.encode(Objects.requireNonNull(value), Objects.requireNonNull(stream), formatted);
+    }
+
+    /**
+     * Encodes the given object as JSON straight to a character stream. The
+     * object graph is written as it is walked, through a bounded buffer that
+     * is drained whenever it fills up, without building a tree or a string of
+     * the whole document first. The writer is flushed but not closed.
+     *
+     * @param value the object to encode.
+     * @param writer the writer to write the JSON to.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized void encode(Object value, Writer writer) throws IOException {
+        encoder.encode(Objects.requireNonNull(value), Objects.requireNonNull(writer), false);
+    }
+
+    /**
+     * Encodes the given object as JSON straight to a character stream with
+     * optional formatting, as {@link #encode(Object, Writer)} does.
+     *
+     * @param value the object to encode.
+     * @param writer the writer to write the JSON to.
+     * @param formatted whether the JSON should be formatted.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized void encode(Object value, Writer writer, boolean formatted) throws IOException {
+        encoder.encode(Objects.requireNonNull(value), Objects.requireNonNull(writer), formatted);
+    }
+
+    /**
+     * Encodes the given object as UTF-8 JSON bytes. The object graph is
+     * written as it is walked into a buffer taken from a pool owned by this
+     * serializer, without building a tree or a string first; only the final,
+     * exactly sized array is allocated.
+     *
+     * @param value the object to encode.
+     * @return the UTF-8 encoded JSON.
+     */
+    public synchronized byte[] encodeToBytes(Object value) {
+        return encoder.encodeToBytes(Objects.requireNonNull(value), false);
+    }
+
+    /**
+     * Encodes the given object as UTF-8 JSON bytes with optional formatting,
+     * as {@link #encodeToBytes(Object)} does.
+     *
+     * @param value the object to encode.
+     * @param formatted whether the JSON should be formatted.
+     * @return the UTF-8 encoded JSON.
+     */
+    public synchronized byte[] encodeToBytes(Object value, boolean formatted) {
+        return encoder.encodeToBytes(Objects.requireNonNull(value), formatted);
+    }
+
+    /**
+     * Encodes the given object as UTF-8 JSON into a buffer taken from a pool
+     * owned by this serializer, so that repeated encodes allocate nothing once
+     * the pool is warm. The returned buffer is positioned at the start of the
+     * JSON and limited at its end. It should be given back with
+     * {@link #release(ByteBuffer)} once it has been consumed, and must not be
+     * used after that.
+     *
+     * @param value the object to encode.
+     * @return a pooled buffer holding the UTF-8 encoded JSON.
+     */
+    public synchronized ByteBuffer encodeToBuffer(Object value) {
+        return encoder.encodeToBuffer(Objects.requireNonNull(value), false);
+    }
+
+    /**
+     * Gives a buffer returned by {@link #encodeToBuffer(Object)} back to the
+     * pool for reuse. Each buffer must be released at most once. Buffers that
+     * are not released are simply garbage collected. This method may be
+     * called from any thread.
+     *
+     * @param buffer the buffer to release.
+     */
+    public void release(ByteBuffer buffer) {
+        encoder.release(Objects.requireNonNull(buffer));
+    }
+
+    /**
+     * Encodes the given object as UTF-8 JSON into the target buffer, starting
+     * at its position, which is advanced past the JSON. Nothing is written if
+     * the JSON does not fit in the remaining space of the buffer.
+     *
+     * @param value the object to encode.
+     * @param target the buffer to write the JSON to.
+     * @return the number of bytes written.
+     * @throws java.nio.BufferOverflowException if the JSON does not fit.
+     * @throws java.nio.ReadOnlyBufferException if the buffer is read-only.
+     */
+    public synchronized int encode(Object value, ByteBuffer target) {
+        return encoder.encode(Objects.requireNonNull(value), Objects.requireNonNull(target), false);
+    }
+
+    /**
+     * Decodes a JSON file to an object of the specified type. The file is
+     * memory-mapped and parsed straight from the page cache.
      *
      * @param file the JSON file to decode.
      * @param c the target type class.
@@ -81,7 +232,8 @@ public class JsonSerializer {
     }
 
     /**
-     * Decodes a JSON file to an object.
+     * Decodes a JSON file to an object. The file is memory-mapped and parsed
+     * straight from the page cache.
      *
      * @param file the JSON file to decode.
      * @return the decoded object.
@@ -92,6 +244,34 @@ public class JsonSerializer {
         return decoder.decode(Objects.requireNonNull(file));
     }
 
+    /**
+     * Decodes a JSON file to an object of the specified type. The file is
+     * memory-mapped and parsed straight from the page cache.
+     *
+     * @param path the path of the JSON file to decode.
+     * @param c the target type class.
+     * @param <T> the target type.
+     * @return the decoded object.
+     * @throws JsonException if an error occurs during decoding.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized <T> T decode(Path path, Class<T> c) throws JsonException, IOException {
+        return decoder.decode(Objects.requireNonNull(path), c);
+    }
+
+    /**
+     * Decodes a JSON file to an object. The file is memory-mapped and parsed
+     * straight from the page cache.
+     *
+     * @param path the path of the JSON file to decode.
+     * @return the decoded object.
+     * @throws JsonException if an error occurs during decoding.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized JsonNode decode(Path path) throws JsonException, IOException {
+        return decoder.decode(Objects.requireNonNull(path));
+    }
+
     /**
      * Decodes a JSON stream to an object of the specified type with optional
      * auto-closing.
@@ -147,6 +327,135 @@ public class JsonSerializer {
         return decoder.decode(Objects.requireNonNull(stream), true);
     }
 
+    /**
+     * Decodes a stream of newline-delimited JSON (JSON Lines), one record per
+     * line, to a lazy stream of objects of the specified type. Records are
+     * read and decoded only as the returned stream is consumed, reusing the
+     * same buffers for every line, so memory stays bounded by the longest
+     * line whatever the size of the input. Blank lines are skipped. Closing
+     * the returned stream closes the input.
+     * <p>
+     * A malformed record fails the stream with a {@link JsonException} whose
+     * message holds the line number; I/O errors are thrown as
+     * {@link java.io.UncheckedIOException}.
+     *
+     * @param stream the JSON Lines stream to decode.
+     * @param c the target type class.
+     * @param <T> the target type.
+     * @return a lazy stream of the decoded records, in input order.
+     */
+    public synchronized <T> Stream<T> decodeLines(InputStream stream, Class<T> c) {
+        return decoder.decodeLines(Objects.requireNonNull(stream), Objects.requireNonNull(c));
+    }
+
+    /**
+     * Decodes newline-delimited JSON (JSON Lines) held in a byte array on
+     * several threads. The input is cut into chunks that end on a newline and
+     * the chunks are decoded in parallel, on as many threads as set with
+     * {@link JsonSerializerBuilder#parallelism(int)}. Blank lines are skipped.
+     * <p>
+     * In order, the records are returned as they appear in the input;
+     * otherwise the records of each chunk are appended as soon as the chunk
+     * is decoded, so records from different chunks may come in any order.
+     *
+     * @param src the UTF-8 encoded JSON Lines to decode.
+     * @param c the target type class.
+     * @param ordered whether the records must keep the order of the input.
+     * @param <T> the target type.
+     * @return the decoded records.
+     * @throws JsonException if a record is malformed; the message holds its
+     * line number.
+     */
+    public synchronized <T> List<T> decodeLines(byte[] src, Class<T> c, boolean ordered) throws JsonException {
+        return decoder.decodeLines(Objects.requireNonNull(src), 0, src.length, Objects.requireNonNull(c), ordered);
+    }
+
+    /**
+     * Decodes a file of newline-delimited JSON (JSON Lines) on several
+     * threads, as {@link #decodeLines(byte[], Class, boolean)} does. Every
+     * chunk is memory-mapped and copied by the thread that decodes it, so the
+     * whole file is never held in memory at once.
+     *
+     * @param path the path of the JSON Lines file to decode.
+     * @param c the target type class.
+     * @param ordered whether the records must keep the order of the file.
+     * @param <T> the target type.
+     * @return the decoded records.
+     * @throws JsonException if a record is malformed; the message holds its
+     * line number.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized <T> List<T> decodeLines(Path path, Class<T> c, boolean ordered) throws JsonException, IOException {
+        return decoder.decodeLines(Objects.requireNonNull(path), Objects.requireNonNull(c), ordered);
+    }
+
+    /**
+     * Decodes a JSON document whose top-level value is an array on several
+     * threads. One pass over the input finds where the array can be cut
+     * between two elements, skipping over strings, and the chunks are parsed
+     * in parallel on as many threads as set with
+     * {@link JsonSerializerBuilder#parallelism(int)}. The result is the same
+     * as that of {@link #decode(byte[])}.
+     *
+     * @param src the UTF-8 encoded JSON array to decode.
+     * @return the decoded array.
+     * @throws JsonException if an error occurs during decoding, or the
+     * top-level value is not an array.
+     */
+    public synchronized JsonArray decodeArray(byte[] src) throws JsonException {
+        return decoder.decodeArray(Objects.requireNonNull(src), 0, src.length);
+    }
+
+    /**
+     * Decodes a JSON document whose top-level value is an array to a list of
+     * objects of the specified type on several threads, as
+     * {@link #decodeArray(byte[])} does. Every element is converted by the
+     * thread that parsed it.
+     *
+     * @param src the UTF-8 encoded JSON array to decode.
+     * @param c the element type class.
+     * @param <T> the element type.
+     * @return the decoded elements, in the order of the array.
+     * @throws JsonException if an error occurs during decoding, or the
+     * top-level value is not an array.
+     */
+    public synchronized <T> List<T> decodeArray(byte[] src, Class<T> c) throws JsonException {
+        return decoder.decodeArray(Objects.requireNonNull(src), 0, src.length, Objects.requireNonNull(c));
+    }
+
+    /**
+     * Decodes a JSON file whose top-level value is an array on several
+     * threads, as {@link #decodeArray(byte[])} does. The file is read once to
+     * find the cuts and every chunk is then memory-mapped and copied by the
+     * thread that parses it, so files larger than 2 GB are supported.
+     *
+     * @param path the path of the JSON file to decode.
+     * @return the decoded array.
+     * @throws JsonException if an error occurs during decoding, or the
+     * top-level value is not an array.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized JsonArray decodeArray(Path path) throws JsonException, IOException {
+        return decoder.decodeArray(Objects.requireNonNull(path));
+    }
+
+    /**
+     * Decodes a JSON file whose top-level value is an array to a list of
+     * objects of the specified type on several threads, as
+     * {@link #decodeArray(Path)} does.
+     *
+     * @param path the path of the JSON file to decode.
+     * @param c the element type class.
+     * @param <T> the element type.
+     * @return the decoded elements, in the order of the array.
+     * @throws JsonException if an error occurs during decoding, or the
+     * top-level value is not an array.
+     * @throws IOException if an I/O error occurs.
+     */
+    public synchronized <T> List<T> decodeArray(Path path, Class<T> c) throws JsonException, IOException {
+        return decoder.decodeArray(Objects.requireNonNull(path), Objects.requireNonNull(c));
+    }
+
     /**
      * Decodes a JSON string to an object of the specified type.
      *
@@ -170,4 +479,297 @@ public class JsonSerializer {
     public synchronized JsonNode decode(String src) throws JsonException {
         return decoder.decode(Objects.requireNonNull(src));
     }
+
+    /**
+     * Decodes only the given paths of a JSON string to an object. Each path
+     * is a list of object member names separated by dots, such as
+     * {@code "address.city"}, and arrays along the way apply it to each of
+     * their elements. The value at the end of a path is kept whole; every
+     * other member is skipped without decoding its contents and left out of
+     * the result.
+     *
+     * @param src the JSON string to decode.
+     * @param paths the member paths to keep.
+     * @return the decoded object, holding only the given paths.
+     * @throws JsonException if an error occurs during decoding.
+     * @throws IllegalArgumentException if a path has an empty member name.
+     */
+    public synchronized JsonNode decode(String src, Set<String> paths) throws JsonException {
+        return decoder.decode(Objects.requireNonNull(src), Objects.requireNonNull(paths));
+    }
+
+    /**
+     * Decodes UTF-8 encoded JSON bytes to an object of the specified type. The
+     * bytes are scanned in place, without building an intermediate string.
+     *
+     * @param src the UTF-8 encoded JSON to decode.
+     * @param c the target type class.
+     * @param <T> the target type.
+     * @return the decoded object.
+     * @throws JsonException if an error occurs during decoding.
+     */
+    public synchronized <T> T decode(byte[] src, Class<T> c) throws JsonException {
+        return decoder.decode(Objects.requireNonNull(src), 0, src.length, c);
+    }
+
+    /**
+     * Decodes UTF-8 encoded JSON bytes to an object. The bytes are scanned in
+     * place, without building an intermediate string.
+     *
+     * @param src the UTF-8 encoded JSON to decode.
+     * @return the decoded object.
+     * @throws JsonException if an error occurs during decoding.
+     */
+    public synchronized JsonNode decode(byte[] src) throws JsonException {
+        return decoder.decode(Objects.requireNonNull(src), 0, src.length);
+    }
+
+    /**
+     * Decodes only the given paths of UTF-8 encoded JSON bytes to an object,
+     * as {@link #decode(String, Set)} does.
+     *
+     * @param src the UTF-8 encoded JSON to decode.
+     * @param paths the member paths to keep.
+     * @return the decoded object, holding only the given paths.
+     * @throws JsonException if an error occurs during decoding.
+     * @throws IllegalArgumentException if a path has an empty member name.
+     */
+    public synchronized JsonNode decode(byte[] src, Set<String> paths) throws JsonException {
+        return decoder.decode(Objects.requireNonNull(src), 0, src.length, Objects.requireNonNull(paths));
+    }
+
+    /**
+     * Decodes a range of UTF-8 encoded JSON bytes to an object of the
+     * specified type. The bytes are scanned in place, without building an
+     * intermediate string.
+     *
+     * @param src the array holding the UTF-8 encoded JSON to decode.
+     * @param offset the index of the first byte of the JSON.
+     * @param length the number of bytes of the JSON.
+     * @param c the target type class.
+     * @param <T> the target type.
+     * @return the decoded object.
+     * @throws JsonException if an error occurs during decoding.
+     */
+    public synchronized <T> T decode(byte[] src, int offset, int length, Class<T> c) throws JsonException {
+        Objects.checkFromIndexSize(offset, length, src.length);
+        return decoder.decode(src, offset, length, c);
+    }
+
+    /**
+     * Decodes a range of UTF-8 encoded JSON bytes to an object. The bytes are
+     * scanned in place, without building an intermediate string.
+     *
+     * @param src the array holding the UTF-8 encoded JSON to decode.
+     * @param offset the index of the first byte of the JSON.
+     * @param length the number of bytes of the JSON.
+     * @return the decoded object.
+     * @throws JsonException if an error occurs during decoding.
+     */
+    public synchronized JsonNode decode(byte[] src, int offset, int length) throws JsonException {
+        Objects.checkFromIndexSize(offset, length, src.length);
+        return decoder.decode(src, offset, length);
+    }
+
+    /**
+     * Returns the hit and miss counts of the cache that object member names
+     * are canonicalized through, accumulated over every decode call of this
+     * serializer. Both are zero if the cache is disabled.
+     *
+     * @return the key cache statistics.
+     * @see JsonSerializerBuilder#keyCacheSize(int)
+     */
+    public synchronized KeyCacheStatistics keyCacheStatistics() {
+        return decoder.keyCacheStatistics();
+    }
+
+    /**
+     * A builder class for constructing instances of JsonSerializer.
+     */
+    public static final class JsonSerializerBuilder {
+
+        private boolean structuralIndex;
+        private NumberMode numberMode;
+        private boolean lazy;
+        private boolean tape;
+        private boolean projection;
+        private int keyCacheSize;
+        private int parallelism;
+        private boolean asciiOnly;
+        private int parallelEncodeThreshold;
+
+        /**
+         * Constructs a new JsonSerializerBuilder with default settings.
+         */
+        private JsonSerializerBuilder() {
+            this.numberMode = NumberMode.BIG_DECIMAL;
+            this.keyCacheSize = KeyTable.DEFAULT_CAPACITY;
+            this.parallelism = Runtime.getRuntime().availableProcessors();
+        }
+
+        /**
+         * Enables the two-stage decoder for byte input. The first stage finds
+         * the position of every token 64 bytes at a time, using the
+         * incubating Vector API when the {@code jdk.incubator.vector} module
+         * is present and a portable scalar classifier otherwise. The second
+         * stage builds the tree by jumping between those positions. This pays
+         * off for large documents; it is disabled by default.
+         *
+         * @param enabled whether to index byte input before parsing it.
+         * @return this JsonSerializerBuilder instance, for method chaining.
+         */
+        public JsonSerializerBuilder structuralIndex(boolean enabled) {
+            this.structuralIndex = enabled;
+            return this;
+        }
+
+        /**
+         * Sets which {@link Number} types decoded JSON numbers become. Defaults
+         * to {@link NumberMode#BIG_DECIMAL}.
+         *
+         * @param mode the number decoding mode.
+         * @return this JsonSerializerBuilder instance, for method chaining.
+         */
+        public JsonSerializerBuilder numberMode(NumberMode mode) {
+            this.numberMode = Objects.requireNonNull(mode);
+            return this;
+        }
+
+        /**
+         * Makes the decode methods that return a {@link JsonNode} build the
+         * tree lazily. Only the top-level value is parsed up front; every
+         * nested object and array is skipped by matching its braces and only
+         * parsed when one of its members is first accessed, so reading a few
+         * fields of a large document costs time proportional to what is read.
+         * The input is kept in memory until then, so a byte array passed in
+         * must not be modified afterwards, and syntax errors inside a skipped
+         * value are only reported when it is accessed. Decoding to a class is
+         * not affected. Disabled by default.
+         *
+         * @param enabled whether to defer parsing of nested values.
+         * @return this JsonSerializerBuilder instance, for method chaining.
+         */
+        public JsonSerializerBuilder lazy(boolean enabled) {
+            this.lazy = enabled;
+            return this;
+        }
+
+        /**
+         * Makes byte input be scanned into a tape first: a single
+         * {@code long[]} with one packed word per token that points back into
+         * the input for string and number text. The tree is then built by
+         * walking the tape, without any per-token allocation. Combined with
+         * {@link #structuralIndex(boolean)} the tape is filled from the index.
+         * Disabled by default.
+         *
+         * @param enabled whether to scan byte input into a tape before parsing.
+         * @return this JsonSerializerBuilder instance, for method chaining.
+         */
+        public JsonSerializerBuilder tape(boolean enabled) {
+            this.tape = enabled;
+            return this;
+        }
+
+        /**
+         * Makes the decode methods that bind to a class parse only what the
+         * class binds. The member names are taken from its record components
+         * or fields, recursively through nested records, classes and
+         * collections of them, and every other member is skipped by matching
+         * braces and quotes, without building its strings, numbers or nested
+         * values. This makes wide payloads bound to narrow classes much
+         * cheaper. Syntax errors inside a skipped value may go unreported.
+         * Disabled by default.
+         *
+         * @param enabled whether to skip members the target class does not
+         * bind.
+         * @return this JsonSerializerBuilder instance, for method chaining.
+         */
+        public JsonSerializerBuilder projection(boolean enabled) {
+            this.projection = enabled;
+            return this;
+        }
+
+        /**
+         * Sets how many object member names the decoder keeps canonical
+         * instances of. A name of up to 32 bytes that is already cached is
+         * matched against the input in place and returned without allocating
+         * or hashing a new String. Defaults to 1024; zero disables the cache.
+         *
+         * @param size the maximum number of cached names, rounded up to a
+         * power of two.
+         * @return this JsonSerializerBuilder instance, for method chaining.
+         * @throws IllegalArgumentException if the size is negative.
+         */
+        public JsonSerializerBuilder keyCacheSize(int size) {
+            if (size < 0) {
+                throw new IllegalArgumentException("Key cache size must not be negative: " + size);
+            }
+            this.keyCacheSize = size;
+            return this;
+        }
+
+        /**
+         * Sets how many threads the parallel decode methods use, such as
+         * {@link JsonSerializer#decodeLines(byte[], Class, boolean)} and
+         * {@link JsonSerializer#decodeArray(byte[])}, and parallel encoding
+         * enabled by {@link #parallelEncodeThreshold(int)}. Both share the
+         * threads, which are started on first use and stop again when idle.
+         * Defaults to the number of available processors.
+         *
+         * @param threads the number of threads.
+         * @return this JsonSerializerBuilder instance, for method chaining.
+         * @throws IllegalArgumentException if the number is not positive.
+         */
+        public JsonSerializerBuilder parallelism(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("Parallelism must be positive: " + threads);
+            }
+            this.parallelism = threads;
+            return this;
+        }
+
+        /**
+         * Makes the encode methods escape every character outside ASCII in
+         * strings and member names, so that the output is pure ASCII whatever
+         * channel it goes through. Disabled by default.
+         *
+         * @param enabled whether to escape characters outside ASCII.
+         * @return this JsonSerializerBuilder instance, for method chaining.
+         */
+        public JsonSerializerBuilder asciiOnly(boolean enabled) {
+            this.asciiOnly = enabled;
+            return this;
+        }
+
+        /**
+         * Makes the encode methods of objects split every collection with at
+         * least the given number of elements into chunks that are encoded on
+         * {@link #parallelism(int)} threads and joined in order. The output is
+         * the same as when encoding sequentially. The collection and the
+         * objects in it must not be modified while they are encoded.
+         * Collections nested in a chunk are encoded sequentially. Defaults to
+         * zero, which disables parallel encoding.
+         *
+         * @param elements the minimum size of a collection to encode in
+         * parallel, or zero to never do so.
+         * @return this JsonSerializerBuilder instance, for method chaining.
+         * @throws IllegalArgumentException if the size is negative.
+         */
+        public JsonSerializerBuilder parallelEncodeThreshold(int elements) {
+            if (elements < 0) {
+                throw new IllegalArgumentException("Parallel encode threshold must not be negative: " + elements);
+            }
+            this.parallelEncodeThreshold = elements;
+            return this;
+        }
+
+        /**
+         * Builds a JsonSerializer with the settings of this builder.
+         *
+         * @return the constructed JsonSerializer.
+         */
+        public JsonSerializer build() {
+            return new JsonSerializer(this);
+        }
+    }
 }
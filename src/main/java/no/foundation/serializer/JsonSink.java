@@ -0,0 +1,435 @@
+package no.foundation.serializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Bounded output buffer that JSON text is written into and that drains to
+ * the underlying stream whenever it fills up, so the size of the document
+ * never matters. I/O errors are thrown as {@link UncheckedIOException}.
+ */
+abstract sealed class JsonSink permits JsonSink.Bytes, JsonSink.Chars {
+
+    static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Whether string literals escape every character outside ASCII.
+     */
+    final boolean ascii;
+
+    JsonSink(boolean ascii) {
+        this.ascii = ascii;
+    }
+
+    /**
+     * Writes a single ASCII character.
+     */
+    abstract void write(char c);
+
+    /**
+     * Writes text that is known to be ASCII, such as numbers and literals.
+     */
+    abstract void write(String ascii);
+
+    /**
+     * Writes a number in the format of its {@code toString()}, without
+     * creating the String for the primitive wrapper types.
+     */
+    abstract void write(Number number);
+
+    /**
+     * Writes a value as a JSON string literal of the text
+     * {@link JsonTemporals#toString(Object)} gives, without creating the
+     * String for the temporal types that have a fixed ISO-8601 layout.
+     */
+    abstract void writeTemporal(Object value);
+
+    /**
+     * Writes a pre-encoded member key, quotes and colon included.
+     */
+    abstract void write(EncodedFields.Key key);
+
+    /**
+     * Writes the text as a JSON string literal, escaping it through
+     * {@link JsonStrings}.
+     */
+    abstract void writeQuoted(String text);
+
+    /**
+     * Drains the buffer and flushes the underlying stream.
+     */
+    abstract void flush();
+
+    /**
+     * Returns a new sink of the same kind and settings that keeps everything
+     * written to it in memory, to be appended to this one later.
+     */
+    abstract JsonSink fork();
+
+    /**
+     * Writes everything written to a sink returned by {@link #fork()}.
+     */
+    abstract void append(JsonSink part);
+
+    /**
+     * Sink that encodes to UTF-8 itself and drains to an OutputStream, or
+     * grows its buffer to hold the whole document when there is no stream.
+     * Unless every character outside ASCII is escaped, unpaired surrogates
+     * are written as {@code '?'}, as
+     * {@link String#getBytes(java.nio.charset.Charset)} does.
+     */
+    static final class Bytes extends JsonSink {
+
+        private final OutputStream stream;
+        private byte[] buffer;
+        private int count;
+
+        Bytes(OutputStream stream, boolean ascii) {
+            super(ascii);
+            this.stream = stream;
+            this.buffer = new byte[BUFFER_SIZE];
+        }
+
+        /**
+         * Constructs a sink that writes into the given buffer, replacing it
+         * with a larger copy whenever it fills up.
+         */
+        Bytes(byte[] buffer, boolean ascii) {
+            super(ascii);
+            this.stream = null;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Returns the buffer the document was written into, which is not the
+         * one given to the constructor if that one had to grow.
+         */
+        byte[] buffer() {
+            return buffer;
+        }
+
+        int size() {
+            return count;
+        }
+
+        @Override
+        void write(char c) {
+            if (count == buffer.length) {
+                drain();
+            }
+            buffer[count++] = (byte) c;
+        }
+
+        @Override
+        void write(String ascii) {
+            for (int i = 0; i < ascii.length();) {
+                if (count == buffer.length) {
+                    drain();
+                }
+                int run = Math.min(ascii.length() - i, buffer.length - count);
+                for (int end = i + run; i < end; i++) {
+                    buffer[count++] = (byte) ascii.charAt(i);
+                }
+            }
+        }
+
+        @Override
+        void write(Number number) {
+            if (buffer.length - count < JsonNumbers.MAX_LENGTH) {
+                drain();
+            }
+            int end = JsonNumbers.write(number, buffer, count);
+            if (end < 0) {
+                write(number.toString());
+            } else {
+                count = end;
+            }
+        }
+
+        @Override
+        void writeTemporal(Object value) {
+            if (buffer.length - count < JsonTemporals.MAX_LENGTH + 2) {
+                drain();
+            }
+            int end = JsonTemporals.write(value, buffer, count + 1);
+            if (end < 0) {
+                writeQuoted(JsonTemporals.toString(value));
+            } else {
+                buffer[count] = '"';
+                buffer[end] = '"';
+                count = end + 1;
+            }
+        }
+
+        @Override
+        void write(EncodedFields.Key key) {
+            byte[] bytes = ascii ? key.asciiBytes() : key.bytes();
+            write(bytes, bytes.length);
+        }
+
+        @Override
+        JsonSink fork() {
+            return new Bytes(new byte[BUFFER_SIZE], ascii);
+        }
+
+        @Override
+        void append(JsonSink part) {
+            Bytes bytes = (Bytes) part;
+            write(bytes.buffer, bytes.count);
+        }
+
+        private void write(byte[] bytes, int length) {
+            for (int i = 0; i < length;) {
+                if (count == buffer.length) {
+                    drain();
+                }
+                int run = Math.min(length - i, buffer.length - count);
+                System.arraycopy(bytes, i, buffer, count, run);
+                count += run;
+                i += run;
+            }
+        }
+
+        @Override
+        void writeQuoted(String text) {
+            write('"');
+            int length = text.length();
+            for (int i = 0; i < length; i++) {
+                if (buffer.length - count < 6) {
+                    drain();
+                }
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    String escape = JsonStrings.escape(c);
+                    if (escape == null) {
+                        buffer[count++] = (byte) c;
+                    } else {
+                        write(escape);
+                    }
+                } else if (ascii) {
+                    count = JsonStrings.writeUnicode(c, buffer, count);
+                } else if (c < 0x800) {
+                    buffer[count++] = (byte) (0xC0 | c >> 6);
+                    buffer[count++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int code = Character.toCodePoint(c, text.charAt(++i));
+                    buffer[count++] = (byte) (0xF0 | code >> 18);
+                    buffer[count++] = (byte) (0x80 | code >> 12 & 0x3F);
+                    buffer[count++] = (byte) (0x80 | code >> 6 & 0x3F);
+                    buffer[count++] = (byte) (0x80 | code & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    buffer[count++] = '?';
+                } else {
+                    buffer[count++] = (byte) (0xE0 | c >> 12);
+                    buffer[count++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    buffer[count++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            write('"');
+        }
+
+        @Override
+        void flush() {
+            if (stream == null) {
+                return;
+            }
+            drain();
+            try {
+                stream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void drain() {
+            if (stream == null) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, BUFFER_SIZE));
+                return;
+            }
+            try {
+                stream.write(buffer, 0, count);
+                count = 0;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Sink that drains characters to a Writer, or grows its buffer to hold
+     * the whole document when there is no writer.
+     */
+    static final class Chars extends JsonSink {
+
+        private final Writer writer;
+        private char[] buffer;
+        private final byte[] digits;
+        private int count;
+
+        Chars(Writer writer, boolean ascii) {
+            super(ascii);
+            this.writer = writer;
+            this.buffer = new char[BUFFER_SIZE];
+            this.digits = new byte[Math.max(JsonNumbers.MAX_LENGTH, JsonTemporals.MAX_LENGTH)];
+        }
+
+        /**
+         * Constructs a sink that writes into the given buffer, replacing it
+         * with a larger copy whenever it fills up.
+         */
+        Chars(char[] buffer, boolean ascii) {
+            super(ascii);
+            this.writer = null;
+            this.buffer = buffer;
+            this.digits = new byte[Math.max(JsonNumbers.MAX_LENGTH, JsonTemporals.MAX_LENGTH)];
+        }
+
+        /**
+         * Returns the text held by a sink that has no writer.
+         */
+        String text() {
+            return new String(buffer, 0, count);
+        }
+
+        @Override
+        void write(char c) {
+            if (count == buffer.length) {
+                drain();
+            }
+            buffer[count++] = c;
+        }
+
+        @Override
+        void write(String ascii) {
+            write(ascii, 0, ascii.length());
+        }
+
+        @Override
+        void write(Number number) {
+            int end = JsonNumbers.write(number, digits, 0);
+            if (end < 0) {
+                write(number.toString());
+                return;
+            }
+            if (buffer.length - count < end) {
+                drain();
+            }
+            for (int i = 0; i < end; i++) {
+                buffer[count++] = (char) digits[i];
+            }
+        }
+
+        @Override
+        void writeTemporal(Object value) {
+            int end = JsonTemporals.write(value, digits, 0);
+            if (end < 0) {
+                writeQuoted(JsonTemporals.toString(value));
+                return;
+            }
+            if (buffer.length - count < end + 2) {
+                drain();
+            }
+            buffer[count++] = '"';
+            for (int i = 0; i < end; i++) {
+                buffer[count++] = (char) digits[i];
+            }
+            buffer[count++] = '"';
+        }
+
+        @Override
+        void write(EncodedFields.Key key) {
+            char[] chars = ascii ? key.asciiChars() : key.chars();
+            write(chars, chars.length);
+        }
+
+        @Override
+        JsonSink fork() {
+            return new Chars(new char[BUFFER_SIZE], ascii);
+        }
+
+        @Override
+        void append(JsonSink part) {
+            Chars chars = (Chars) part;
+            write(chars.buffer, chars.count);
+        }
+
+        private void write(char[] chars, int length) {
+            for (int i = 0; i < length;) {
+                if (count == buffer.length) {
+                    drain();
+                }
+                int run = Math.min(length - i, buffer.length - count);
+                System.arraycopy(chars, i, buffer, count, run);
+                count += run;
+                i += run;
+            }
+        }
+
+        @Override
+        void writeQuoted(String text) {
+            write('"');
+            int run = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    String escape = JsonStrings.escape(c);
+                    if (escape != null) {
+                        write(text, run, i);
+                        write(escape);
+                        run = i + 1;
+                    }
+                } else if (ascii) {
+                    write(text, run, i);
+                    if (buffer.length - count < 6) {
+                        drain();
+                    }
+                    count = JsonStrings.writeUnicode(c, buffer, count);
+                    run = i + 1;
+                }
+            }
+            write(text, run, text.length());
+            write('"');
+        }
+
+        @Override
+        void flush() {
+            if (writer == null) {
+                return;
+            }
+            drain();
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void write(String text, int from, int to) {
+            while (from < to) {
+                if (count == buffer.length) {
+                    drain();
+                }
+                int run = Math.min(to - from, buffer.length - count);
+                text.getChars(from, from + run, buffer, count);
+                count += run;
+                from += run;
+            }
+        }
+
+        private void drain() {
+            if (writer == null) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, BUFFER_SIZE));
+                return;
+            }
+            try {
+                writer.write(buffer, 0, count);
+                count = 0;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
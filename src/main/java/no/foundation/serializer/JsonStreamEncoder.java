@@ -0,0 +1,163 @@
+package no.foundation.serializer;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import no.foundation.serializer.tree.JsonValue;
+
+/**
+ * Writes an object graph as JSON text straight into a {@link JsonSink},
+ * walking it the same way {@link JsonTreeAssembler} does but without building
+ * a tree first. The output is the same as printing the assembled tree with
+ * {@link JsonPrinter}, formatted or not.
+ */
+final class JsonStreamEncoder {
+
+    private final JsonSink sink;
+    private final boolean formatted;
+    private final ParallelEncoder parallel;
+
+    JsonStreamEncoder(JsonSink sink, boolean formatted) {
+        this(sink, formatted, null);
+    }
+
+    /**
+     * Constructs an encoder that hands large collections to the given
+     * parallel encoder, or encodes everything itself if it is null.
+     */
+    JsonStreamEncoder(JsonSink sink, boolean formatted, ParallelEncoder parallel) {
+        this.sink = sink;
+        this.formatted = formatted;
+        this.parallel = parallel;
+    }
+
+    void encode(Object value) {
+        write(value, 0);
+        sink.flush();
+    }
+
+    private void write(Object value, int indent) {
+        if (value instanceof JsonValue<?> node) {
+            writeValue(node.value());
+        } else if (TypeProvider.isBasicType(value)) {
+            writeValue(value);
+        } else if (value instanceof Collection<?> collection) {
+            writeArray(collection, indent);
+        } else if (value instanceof Map<?, ?> map) {
+            writeMap(map, indent);
+        } else {
+            writeObject(value, indent);
+        }
+    }
+
+    private void writeValue(Object value) {
+        if (value == null) {
+            sink.write("null");
+        } else if (value instanceof Number number) {
+            sink.write(number);
+        } else if (value instanceof Boolean) {
+            sink.write(value.toString());
+        } else if (value instanceof String text) {
+            sink.writeQuoted(text);
+        } else {
+            sink.writeTemporal(value);
+        }
+    }
+
+    private void writeArray(Collection<?> collection, int indent) {
+        Iterator<?> values = collection.iterator();
+        if (!values.hasNext()) {
+            sink.write("[]");
+            return;
+        }
+        sink.write('[');
+        if (parallel != null && parallel.splits(collection.size())) {
+            parallel.writeElements(collection.toArray(), indent, formatted, sink);
+        } else {
+            boolean first = true;
+            while (values.hasNext()) {
+                separate(first, indent);
+                first = false;
+                write(values.next(), indent + 1);
+            }
+        }
+        close(indent, ']');
+    }
+
+    /**
+     * Writes a range of the elements of an array, each after the separator
+     * it has at its index in the whole array.
+     */
+    void writeElements(Object[] values, int from, int to, int indent) {
+        for (int i = from; i < to; i++) {
+            separate(i == 0, indent);
+            write(values[i], indent + 1);
+        }
+    }
+
+    private void writeMap(Map<?, ?> map, int indent) {
+        if (map.isEmpty()) {
+            sink.write("{}");
+            return;
+        }
+        sink.write('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeMember(first, entry.getKey().toString(), entry.getValue(), indent);
+            first = false;
+        }
+        close(indent, '}');
+    }
+
+    private void writeObject(Object object, int indent) {
+        EncodedFields fields = EncodedFields.of(object.getClass());
+        if (fields.size() == 0) {
+            sink.write("{}");
+            return;
+        }
+        sink.write('{');
+        for (int i = 0; i < fields.size(); i++) {
+            separate(i == 0, indent);
+            sink.write(fields.key(i));
+            write(fields.value(i, object), indent + 1);
+        }
+        close(indent, '}');
+    }
+
+    private void writeMember(boolean first, String name, Object value, int indent) {
+        separate(first, indent);
+        sink.writeQuoted(name);
+        sink.write(": ");
+        write(value, indent + 1);
+    }
+
+    /**
+     * Starts a member or element: after a comma unless it is the first, and
+     * then on a new, indented line when formatted or after a space when not.
+     */
+    private void separate(boolean first, int indent) {
+        if (!first) {
+            sink.write(',');
+        }
+        if (formatted) {
+            sink.write('\n');
+            indent(indent + 1);
+        } else if (!first) {
+            sink.write(' ');
+        }
+    }
+
+    private void close(int indent, char bracket) {
+        if (formatted) {
+            sink.write('\n');
+            indent(indent);
+        }
+        sink.write(bracket);
+    }
+
+    private void indent(int indent) {
+        for (int i = 0; i < indent; i++) {
+            sink.write("  ");
+        }
+    }
+}
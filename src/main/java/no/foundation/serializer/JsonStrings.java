@@ -0,0 +1,83 @@
+package no.foundation.serializer;
+
+/**
+ * Escapes text in JSON string literals. Whether an ASCII character needs
+ * escaping, and how, is looked up in a table of all 128 of them, shared by
+ * every sink. Characters outside ASCII are either copied as they are or,
+ * optionally, written as hexadecimal unicode escapes so that the output is
+ * pure ASCII; characters outside the Basic Multilingual Plane are then
+ * escaped as their surrogate pair.
+ */
+final class JsonStrings {
+
+    private static final String[] ESCAPES = new String[128];
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    static {
+        for (char c = 0; c < 0x20; c++) {
+            char[] unicode = new char[6];
+            writeUnicode(c, unicode, 0);
+            ESCAPES[c] = new String(unicode);
+        }
+        ESCAPES['"'] = "\\\"";
+        ESCAPES['\\'] = "\\\\";
+        ESCAPES['\n'] = "\\n";
+        ESCAPES['\r'] = "\\r";
+        ESCAPES['\t'] = "\\t";
+        ESCAPES['\b'] = "\\b";
+        ESCAPES['\f'] = "\\f";
+    }
+
+    private JsonStrings() {
+    }
+
+    /**
+     * Returns the escape sequence of an ASCII character, or null if it is
+     * written as it is.
+     */
+    static String escape(char c) {
+        return ESCAPES[c];
+    }
+
+    /**
+     * Writes the six-character unicode escape of a character, returning the
+     * index after it.
+     */
+    static int writeUnicode(char c, byte[] buffer, int i) {
+        buffer[i] = '\\';
+        buffer[i + 1] = 'u';
+        buffer[i + 2] = (byte) HEX[c >> 12];
+        buffer[i + 3] = (byte) HEX[c >> 8 & 0xF];
+        buffer[i + 4] = (byte) HEX[c >> 4 & 0xF];
+        buffer[i + 5] = (byte) HEX[c & 0xF];
+        return i + 6;
+    }
+
+    static int writeUnicode(char c, char[] buffer, int i) {
+        buffer[i] = '\\';
+        buffer[i + 1] = 'u';
+        buffer[i + 2] = HEX[c >> 12];
+        buffer[i + 3] = HEX[c >> 8 & 0xF];
+        buffer[i + 4] = HEX[c >> 4 & 0xF];
+        buffer[i + 5] = HEX[c & 0xF];
+        return i + 6;
+    }
+
+    /**
+     * Returns the text as a JSON string literal, with non-ASCII characters
+     * left as they are.
+     */
+    static String quote(String text) {
+        return quote(text, false);
+    }
+
+    /**
+     * Returns the text as a JSON string literal, with non-ASCII characters
+     * escaped if asked to.
+     */
+    static String quote(String text, boolean ascii) {
+        JsonSink.Chars sink = new JsonSink.Chars(new char[text.length() + 16], ascii);
+        sink.writeQuoted(text);
+        return sink.text();
+    }
+}
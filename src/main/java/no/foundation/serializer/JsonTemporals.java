@@ -0,0 +1,431 @@
+package no.foundation.serializer;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+/**
+ * Reads and writes the ISO-8601 text of {@link Instant}, {@link LocalDate},
+ * {@link LocalDateTime}, {@link OffsetDateTime} and {@link java.util.Date}
+ * by hand, for the fixed layouts with four-digit years that nearly all
+ * payloads use. Writing goes straight into a byte array and gives exactly the
+ * text of {@code toString()}, or of {@link Date#toInstant()} for a Date.
+ * Reading picks the fields out of the text by position; anything else, such
+ * as expanded years, offsets with seconds or invalid dates, is left to the
+ * {@code parse} methods of the types, so that what is accepted and the errors
+ * reported are the same as theirs.
+ */
+final class JsonTemporals {
+
+    /**
+     * The maximum number of bytes {@link #write(Object, byte[], int)} writes.
+     */
+    static final int MAX_LENGTH = 38;
+
+    private static final long SECONDS_PER_DAY = 86_400;
+    private static final long NANOS_PER_SECOND = 1_000_000_000;
+    private static final long MIN_SECOND = -62_167_219_200L;
+    private static final long MAX_SECOND = 253_402_300_799L;
+    private static final int DAYS_0000_TO_1970 = 719_468;
+
+    private JsonTemporals() {
+    }
+
+    /**
+     * Returns the text a value is encoded as: the ISO-8601 text of an
+     * instant for a {@link Date}, and {@code toString()} for anything else.
+     *
+     * @param value the value.
+     * @return the text of the value.
+     */
+    static String toString(Object value) {
+        if (value.getClass() == Date.class) {
+            return ((Date) value).toInstant().toString();
+        }
+        return value.toString();
+    }
+
+    /**
+     * Writes the text of an Instant, LocalDate, LocalDateTime,
+     * OffsetDateTime or Date with a year from 0 to 9999, as
+     * {@link #toString(Object)} returns it.
+     *
+     * @param value the value to write.
+     * @param buffer the array to write to, with at least {@link #MAX_LENGTH}
+     * bytes available from the offset.
+     * @param offset the index to start writing at.
+     * @return the index after the last byte written, or -1 if the value is of
+     * another type or outside the fixed layout, and nothing was written.
+     */
+    static int write(Object value, byte[] buffer, int offset) {
+        return switch (value) {
+            case Instant instant ->
+                writeInstant(instant.getEpochSecond(), instant.getNano(), buffer, offset);
+            case LocalDate date ->
+                writeDate(date, buffer, offset);
+            case LocalDateTime dateTime ->
+                writeDateTime(dateTime, buffer, offset);
+            case OffsetDateTime dateTime -> {
+                int end = writeDateTime(dateTime.toLocalDateTime(), buffer, offset);
+                yield end < 0 ? end : writeOffset(dateTime.getOffset(), buffer, end);
+            }
+            case Date date when date.getClass() == Date.class -> {
+                long millis = date.getTime();
+                yield writeInstant(Math.floorDiv(millis, 1000), Math.floorMod(millis, 1000) * 1_000_000, buffer, offset);
+            }
+            default ->
+                -1;
+        };
+    }
+
+    /**
+     * Parses an instant such as {@code 2024-06-18T18:30:00.250Z}, as
+     * {@link Instant#parse(CharSequence)} does.
+     *
+     * @param text the text to parse.
+     * @return the instant.
+     * @throws java.time.format.DateTimeParseException if the text cannot be
+     * parsed.
+     */
+    static Instant parseInstant(String text) {
+        int length = text.length();
+        if (length >= 20 && text.charAt(length - 1) == 'Z' && text.charAt(10) == 'T') {
+            int date = date(text);
+            long time = time(text, 11, length - 1, true);
+            if (date >= 0 && time >= 0 && day(date) <= lengthOfMonth(year(date), month(date))) {
+                long seconds = epochDay(year(date), month(date), day(date)) * SECONDS_PER_DAY + time / NANOS_PER_SECOND;
+                return Instant.ofEpochSecond(seconds, time % NANOS_PER_SECOND);
+            }
+        }
+        return Instant.parse(text);
+    }
+
+    /**
+     * Parses a date such as {@code 2024-06-18}, as
+     * {@link LocalDate#parse(CharSequence)} does.
+     *
+     * @param text the text to parse.
+     * @return the date.
+     * @throws java.time.format.DateTimeParseException if the text cannot be
+     * parsed.
+     */
+    static LocalDate parseLocalDate(String text) {
+        if (text.length() == 10) {
+            int date = date(text);
+            if (date >= 0) {
+                try {
+                    return LocalDate.of(year(date), month(date), day(date));
+                } catch (DateTimeException e) {
+                    // Left to LocalDate.parse for the error it reports.
+                }
+            }
+        }
+        return LocalDate.parse(text);
+    }
+
+    /**
+     * Parses a date and time such as {@code 2024-06-18T14:30:00}, as
+     * {@link LocalDateTime#parse(CharSequence)} does.
+     *
+     * @param text the text to parse.
+     * @return the date and time.
+     * @throws java.time.format.DateTimeParseException if the text cannot be
+     * parsed.
+     */
+    static LocalDateTime parseLocalDateTime(String text) {
+        LocalDateTime dateTime = dateTime(text, text.length());
+        return dateTime != null ? dateTime : LocalDateTime.parse(text);
+    }
+
+    /**
+     * Parses a date and time with an offset such as
+     * {@code 2024-06-18T14:30:00-04:00}, as
+     * {@link OffsetDateTime#parse(CharSequence)} does.
+     *
+     * @param text the text to parse.
+     * @return the date and time with its offset.
+     * @throws java.time.format.DateTimeParseException if the text cannot be
+     * parsed.
+     */
+    static OffsetDateTime parseOffsetDateTime(String text) {
+        int length = text.length();
+        int end = length - 1;
+        if (length > 16 && text.charAt(end) != 'Z') {
+            end = length - 6;
+        }
+        if (end > 15) {
+            LocalDateTime dateTime = dateTime(text, end);
+            ZoneOffset offset = offset(text, end);
+            if (dateTime != null && offset != null) {
+                return OffsetDateTime.of(dateTime, offset);
+            }
+        }
+        return OffsetDateTime.parse(text);
+    }
+
+    /**
+     * Parses a date, a 'T' and a time that ends where the text does or where
+     * its offset starts, or returns null if they are not in the fixed layout.
+     */
+    private static LocalDateTime dateTime(String text, int end) {
+        if (end < 16 || text.charAt(10) != 'T') {
+            return null;
+        }
+        int date = date(text);
+        long time = time(text, 11, end, false);
+        if (date < 0 || time < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(LocalDate.of(year(date), month(date), day(date)), LocalTime.ofNanoOfDay(time));
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the date at the start of the text packed as year * 10000 +
+     * month * 100 + day, or -1 if it is not in the fixed layout.
+     */
+    private static int date(String text) {
+        if (text.length() < 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return -1;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return -1;
+        }
+        return year * 10_000 + month * 100 + day;
+    }
+
+    /**
+     * Returns the nano of day of a time from {@code HH:mm} up to
+     * {@code HH:mm:ss.nnnnnnnnn} filling the range, or -1 if it is not in
+     * that layout.
+     */
+    private static long time(String text, int from, int to, boolean seconds) {
+        int length = to - from;
+        if (length < 5 || text.charAt(from + 2) != ':') {
+            return -1;
+        }
+        int hour = digits(text, from, 2);
+        int minute = digits(text, from + 3, 2);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return -1;
+        }
+        int second = 0;
+        long nano = 0;
+        if (length > 5) {
+            if (length < 8 || text.charAt(from + 5) != ':') {
+                return -1;
+            }
+            second = digits(text, from + 6, 2);
+            if (second < 0 || second > 59) {
+                return -1;
+            }
+            if (length > 8) {
+                if (text.charAt(from + 8) != '.' || length == 9 || length > 18) {
+                    return -1;
+                }
+                for (int i = from + 9; i < from + 18; i++) {
+                    int digit = i < to ? text.charAt(i) - '0' : 0;
+                    if (digit < 0 || digit > 9) {
+                        return -1;
+                    }
+                    nano = 10 * nano + digit;
+                }
+            }
+        } else if (seconds) {
+            return -1;
+        }
+        return ((hour * 60L + minute) * 60 + second) * NANOS_PER_SECOND + nano;
+    }
+
+    /**
+     * Parses {@code Z} or {@code +HH:MM} from the given index to the end of
+     * the text, or returns null if it is neither.
+     */
+    private static ZoneOffset offset(String text, int from) {
+        int length = text.length() - from;
+        char sign = text.charAt(from);
+        if (length == 1 && sign == 'Z') {
+            return ZoneOffset.UTC;
+        }
+        if (length != 6 || sign != '+' && sign != '-' || text.charAt(from + 3) != ':') {
+            return null;
+        }
+        int hours = digits(text, from + 1, 2);
+        int minutes = digits(text, from + 4, 2);
+        if (hours < 0 || minutes < 0) {
+            return null;
+        }
+        try {
+            return sign == '+'
+                    ? ZoneOffset.ofHoursMinutes(hours, minutes)
+                    : ZoneOffset.ofHoursMinutes(-hours, -minutes);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the value of the decimal digits at the given index, or -1 if
+     * any of them is not a digit.
+     */
+    private static int digits(String text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = 10 * value + digit;
+        }
+        return value;
+    }
+
+    private static int year(int date) {
+        return date / 10_000;
+    }
+
+    private static int month(int date) {
+        return date / 100 % 100;
+    }
+
+    private static int day(int date) {
+        return date % 100;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 ->
+                (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+            case 4, 6, 9, 11 ->
+                30;
+            default ->
+                31;
+        };
+    }
+
+    /**
+     * Returns the days since 1970-01-01 of a date in the proleptic Gregorian
+     * calendar, after Hinnant, "chrono-Compatible Low-Level Date
+     * Algorithms".
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    private static int writeInstant(long seconds, int nano, byte[] buffer, int offset) {
+        if (seconds < MIN_SECOND || seconds > MAX_SECOND) {
+            return -1;
+        }
+        // The inverse of epochDay.
+        long z = Math.floorDiv(seconds, SECONDS_PER_DAY) + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (int) (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153L * shiftedMonth + 2) / 5 + 1);
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+        int secondOfDay = (int) Math.floorMod(seconds, SECONDS_PER_DAY);
+        int end = writeDate(year, month, day, buffer, offset);
+        buffer[end++] = 'T';
+        end = writeTime(secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60, nano, true, buffer, end);
+        buffer[end++] = 'Z';
+        return end;
+    }
+
+    private static int writeDate(LocalDate date, byte[] buffer, int offset) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            return -1;
+        }
+        return writeDate(year, date.getMonthValue(), date.getDayOfMonth(), buffer, offset);
+    }
+
+    private static int writeDateTime(LocalDateTime dateTime, byte[] buffer, int offset) {
+        int end = writeDate(dateTime.toLocalDate(), buffer, offset);
+        if (end < 0) {
+            return end;
+        }
+        buffer[end++] = 'T';
+        return writeTime(dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano(), false, buffer, end);
+    }
+
+    private static int writeDate(int year, int month, int day, byte[] buffer, int i) {
+        i = writeTwoDigits(year / 100, buffer, i);
+        i = writeTwoDigits(year % 100, buffer, i);
+        buffer[i++] = '-';
+        i = writeTwoDigits(month, buffer, i);
+        buffer[i++] = '-';
+        return writeTwoDigits(day, buffer, i);
+    }
+
+    /**
+     * Writes a time as {@link LocalTime#toString()} does: the seconds only if
+     * they or the fraction are not zero, unless always asked for, and the
+     * fraction in as many groups of three digits as it needs.
+     */
+    private static int writeTime(int hour, int minute, int second, int nano, boolean seconds, byte[] buffer, int i) {
+        i = writeTwoDigits(hour, buffer, i);
+        buffer[i++] = ':';
+        i = writeTwoDigits(minute, buffer, i);
+        if (seconds || second > 0 || nano > 0) {
+            buffer[i++] = ':';
+            i = writeTwoDigits(second, buffer, i);
+        }
+        if (nano > 0) {
+            buffer[i++] = '.';
+            int digits = nano % 1_000_000 == 0 ? 3 : nano % 1000 == 0 ? 6 : 9;
+            int divisor = 100_000_000;
+            for (int d = 0; d < digits; d++) {
+                buffer[i++] = (byte) ('0' + nano / divisor % 10);
+                divisor /= 10;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Writes an offset as {@link ZoneOffset#toString()} does.
+     */
+    private static int writeOffset(ZoneOffset offset, byte[] buffer, int i) {
+        int total = offset.getTotalSeconds();
+        if (total == 0) {
+            buffer[i++] = 'Z';
+            return i;
+        }
+        int absolute = Math.abs(total);
+        buffer[i++] = (byte) (total < 0 ? '-' : '+');
+        i = writeTwoDigits(absolute / 3600, buffer, i);
+        buffer[i++] = ':';
+        i = writeTwoDigits(absolute / 60 % 60, buffer, i);
+        if (absolute % 60 != 0) {
+            buffer[i++] = ':';
+            i = writeTwoDigits(absolute % 60, buffer, i);
+        }
+        return i;
+    }
+
+    private static int writeTwoDigits(int value, byte[] buffer, int i) {
+        buffer[i] = (byte) ('0' + value / 10);
+        buffer[i + 1] = (byte) ('0' + value % 10);
+        return i + 2;
+    }
+}
@@ -1,9 +1,7 @@
 package no.foundation.serializer;
 
-import java.lang.reflect.Field;
 import java.util.Collection;
 import java.util.Map;
-import no.foundation.serializer.annotations.JsonIgnore;
 import no.foundation.serializer.tree.JsonArray;
 import no.foundation.serializer.tree.JsonNode;
 import no.foundation.serializer.tree.JsonObject;
@@ -12,7 +10,9 @@ import no.foundation.serializer.tree.JsonValue;
 final class JsonTreeAssembler {
 
     JsonNode assemble(Object value) {
-        if (TypeProvider.isBasicType(value)) {
+        if (value instanceof JsonValue<?> node) {
+            return assembleValue(node.value());
+        } else if (TypeProvider.isBasicType(value)) {
             return assembleValue(value);
         } else if (value instanceof Collection<?> collection) {
             return assembleList(collection);
@@ -33,21 +33,10 @@ final class JsonTreeAssembler {
     }
 
     private JsonObject assembleObject(Object obj) {
-        Field[] fields = obj.getClass().getDeclaredFields();
+        EncodedFields fields = EncodedFields.of(obj.getClass());
         JsonObject object = new JsonObject();
-        for (Field field : fields) {
-            try {
-                field.setAccessible(true);
-                JsonIgnore annotation = field.getAnnotation(JsonIgnore.class);
-                if (isIgnoredField(annotation)) {
-                    continue;
-                }
-                String key = field.getName();
-                Object value = field.get(obj);
-                object.put(key, assemble(value));
-            } catch (IllegalAccessException e) {
-                throw new RuntimeException(e);
-            }
+        for (int i = 0; i < fields.size(); i++) {
+            object.put(fields.name(i), assemble(fields.value(i, obj)));
         }
         return object;
     }
@@ -63,8 +52,4 @@ final class JsonTreeAssembler {
     private JsonValue<?> assembleValue(Object value) {
         return new JsonValue<>(value);
     }
-
-    private boolean isIgnoredField(JsonIgnore annotation) {
-        return annotation != null && annotation.onlyEncoder();
-    }
 }
@@ -0,0 +1,21 @@
+package no.foundation.serializer;
+
+/**
+ * Counters of the cache that object member names are canonicalized through
+ * while decoding.
+ *
+ * @param hits the number of names that were found in the cache.
+ * @param misses the number of names that had to be decoded and cached.
+ */
+public record KeyCacheStatistics(long hits, long misses) {
+
+    /**
+     * Returns the fraction of looked up names that were found in the cache.
+     *
+     * @return the hit rate, between 0 and 1, or 0 if nothing was looked up.
+     */
+    public double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,107 @@
+package no.foundation.serializer;
+
+import java.util.Arrays;
+
+/**
+ * Bounded, direct-mapped table of canonical object member names. A name is
+ * looked up by hashing its raw text straight from the lexer buffer and
+ * comparing it in place, so a hit allocates nothing, and the returned
+ * instance already carries its cached {@link String#hashCode()} for the map
+ * it is put into. A miss replaces whatever name shared the slot.
+ * <p>
+ * Every slot keeps the raw text its name was decoded from, escapes included,
+ * and names are matched against that rather than the decoded name: the raw
+ * text of one name can equal the decoded text of another.
+ */
+final class KeyTable {
+
+    static final int DEFAULT_CAPACITY = 1024;
+    static final int MAX_KEY_LENGTH = 32;
+
+    private final String[] keys;
+    private final byte[][] raw;
+    private final char[][] rawChars;
+    private final int[] hashes;
+    private final int mask;
+    private long hits;
+    private long misses;
+
+    KeyTable(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1) << 1);
+        this.keys = new String[size];
+        this.raw = new byte[size][];
+        this.rawChars = new char[size][];
+        this.hashes = new int[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the canonical name whose raw UTF-8 text is the given range, or
+     * null if it is not in the table.
+     */
+    String get(int hash, byte[] src, int from, int to) {
+        int slot = slot(hash);
+        byte[] bytes = raw[slot];
+        if (hashes[slot] == hash && bytes != null && Arrays.equals(bytes, 0, bytes.length, src, from, to)) {
+            hits++;
+            return keys[slot];
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Returns the canonical name whose raw text is the given range of
+     * characters, or null if it is not in the table.
+     */
+    String get(int hash, char[] src, int from, int to) {
+        int slot = slot(hash);
+        char[] chars = rawChars[slot];
+        if (hashes[slot] == hash && chars != null && Arrays.equals(chars, 0, chars.length, src, from, to)) {
+            hits++;
+            return keys[slot];
+        }
+        misses++;
+        return null;
+    }
+
+    void put(int hash, byte[] src, int from, int to, String key) {
+        int slot = slot(hash);
+        keys[slot] = key;
+        raw[slot] = Arrays.copyOfRange(src, from, to);
+        rawChars[slot] = null;
+        hashes[slot] = hash;
+    }
+
+    void put(int hash, char[] src, int from, int to, String key) {
+        int slot = slot(hash);
+        keys[slot] = key;
+        raw[slot] = null;
+        rawChars[slot] = Arrays.copyOfRange(src, from, to);
+        hashes[slot] = hash;
+    }
+
+    KeyCacheStatistics statistics() {
+        return new KeyCacheStatistics(hits, misses);
+    }
+
+    static int hash(byte[] src, int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + src[i];
+        }
+        return hash;
+    }
+
+    static int hash(char[] src, int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + src[i];
+        }
+        return hash;
+    }
+
+    private int slot(int hash) {
+        return (hash ^ hash >>> 16) & mask;
+    }
+}
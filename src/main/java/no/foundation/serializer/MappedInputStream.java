@@ -0,0 +1,74 @@
+package no.foundation.serializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Input stream over a memory-mapped file. The file is mapped read-only in
+ * windows of up to 1 GiB, so reads are served straight from the page cache
+ * and files larger than a single mapping are supported. Several JVMs mapping
+ * the same file share the same physical pages.
+ */
+final class MappedInputStream extends InputStream {
+
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private long offset;
+    private MappedByteBuffer window;
+
+    MappedInputStream(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureWindow()) {
+            return -1;
+        }
+        return window.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureWindow()) {
+            return -1;
+        }
+        int count = Math.min(len, window.remaining());
+        window.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, size - offset + (window == null ? 0 : window.remaining()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    private boolean ensureWindow() throws IOException {
+        if (window != null && window.hasRemaining()) {
+            return true;
+        }
+        if (offset >= size) {
+            return false;
+        }
+        long length = Math.min(WINDOW_SIZE, size - offset);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        offset += length;
+        return true;
+    }
+}
@@ -0,0 +1,28 @@
+package no.foundation.serializer;
+
+/**
+ * Controls which {@link Number} types the decoder produces for JSON numbers.
+ */
+public enum NumberMode {
+
+    /**
+     * Integers become {@link Long} and decimals become {@link Double}, parsed
+     * straight from the input. {@link java.math.BigInteger} and
+     * {@link java.math.BigDecimal} are only used for values that do not fit.
+     */
+    LONG_OR_DOUBLE,
+
+    /**
+     * Integers become {@link java.math.BigInteger} and decimals become
+     * {@link java.math.BigDecimal}, so no precision is ever lost. This is the
+     * default.
+     */
+    BIG_DECIMAL,
+
+    /**
+     * Numbers are kept as their source text in a
+     * {@link no.foundation.serializer.tree.JsonNumber} and only parsed when
+     * one of its accessors is called.
+     */
+    LAZY,
+}
@@ -0,0 +1,404 @@
+package no.foundation.serializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import no.foundation.serializer.exceptions.JsonException;
+import no.foundation.serializer.tree.JsonNode;
+
+/**
+ * Decodes newline-delimited JSON and large top-level arrays on several cores.
+ * The input is cut into chunks that hold whole records, ending on a newline
+ * or on a comma between two elements of the array, and the chunks are decoded
+ * independently on the serializer's {@link WorkerPool}, each task with its own lexer,
+ * parser and key table. Results are either put back together in input order
+ * or collected as the chunks complete.
+ */
+final class ParallelDecoder {
+
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+    private static final int MAX_CHUNK_SIZE = 1 << 26;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int SCAN_SIZE = 1 << 12;
+
+    private final WorkerPool workers;
+    private final NumberMode numberMode;
+
+    ParallelDecoder(WorkerPool workers, NumberMode numberMode) {
+        this.workers = workers;
+        this.numberMode = numberMode;
+    }
+
+    <T> List<T> decodeLines(byte[] src, int offset, int length, Class<T> type, Projection projection,
+            boolean ordered) {
+        int end = offset + length;
+        int chunkSize = chunkSize(length);
+        List<Callable<List<T>>> tasks = new ArrayList<>();
+        for (int from = offset; from < end;) {
+            int to = from + chunkSize < end ? endOfLine(src, from + chunkSize, end) : end;
+            int start = from;
+            tasks.add(() -> decodeChunk(src, start, to, start, type, projection));
+            from = to;
+        }
+        try {
+            return run(tasks, ordered);
+        } catch (LineFailure e) {
+            throw e.report(countLines(src, offset, (int) e.position));
+        }
+    }
+
+    <T> List<T> decodeLines(Path path, Class<T> type, Projection projection, boolean ordered) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunkSize = chunkSize(size);
+            List<Callable<List<T>>> tasks = new ArrayList<>();
+            for (long from = 0; from < size;) {
+                long to = from + chunkSize < size ? endOfLine(channel, from + chunkSize, size) : size;
+                if (to - from > Integer.MAX_VALUE - 8) {
+                    throw new JsonException("Line at offset %d is too long".formatted(from));
+                }
+                long start = from;
+                tasks.add(() -> {
+                    byte[] chunk = read(channel, start, to);
+                    return decodeChunk(chunk, 0, chunk.length, start, type, projection);
+                });
+                from = to;
+            }
+            try {
+                return run(tasks, ordered);
+            } catch (LineFailure e) {
+                throw e.report(countLines(channel, e.position));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    <T> List<T> decodeArray(byte[] src, int offset, int length, Projection projection, Function<JsonNode, T> mapper) {
+        ArrayScanner scanner = new ArrayScanner(chunkSize(length));
+        scanner.scan(src, offset, offset + length, 0);
+        long[] cuts = scanner.finish();
+        List<Callable<List<T>>> tasks = new ArrayList<>();
+        for (int i = 0; i < cuts.length; i += 2) {
+            int from = (int) cuts[i];
+            int to = (int) cuts[i + 1];
+            boolean last = i + 2 == cuts.length;
+            tasks.add(() -> decodeElements(src, from, to, last, projection, mapper));
+        }
+        return run(tasks, true);
+    }
+
+    <T> List<T> decodeArray(Path path, Projection projection, Function<JsonNode, T> mapper) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ArrayScanner scanner = new ArrayScanner(chunkSize(channel.size()));
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_SIZE * 16);
+            long position = 0;
+            int read;
+            while ((read = channel.read(buffer.clear(), position)) > 0) {
+                scanner.scan(buffer.array(), 0, read, position);
+                position += read;
+            }
+            long[] cuts = scanner.finish();
+            List<Callable<List<T>>> tasks = new ArrayList<>();
+            for (int i = 0; i < cuts.length; i += 2) {
+                long from = cuts[i];
+                long to = cuts[i + 1];
+                boolean last = i + 2 == cuts.length;
+                if (to - from > Integer.MAX_VALUE - 8) {
+                    throw new JsonException("Array element at offset %d is too long".formatted(from));
+                }
+                tasks.add(() -> {
+                    byte[] chunk = read(channel, from, to);
+                    return decodeElements(chunk, 0, chunk.length, last, projection, mapper);
+                });
+            }
+            return run(tasks, true);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Decodes the comma-separated array elements between the given offsets.
+     * As in {@link JsonParser}, a comma may follow the last element of the
+     * array, so only the last chunk may end in one. Every other chunk is
+     * followed by the comma it was cut on and must end right after an
+     * element, or the whole array would have two commas in a row.
+     */
+    private <T> List<T> decodeElements(byte[] src, int from, int to, boolean last, Projection projection,
+            Function<JsonNode, T> mapper) {
+        Utf8Lexer lexer = new Utf8Lexer(src, from, to - from);
+        JsonParser parser = new JsonParser(lexer, numberMode, new KeyTable(KeyTable.DEFAULT_CAPACITY));
+        List<T> result = new ArrayList<>();
+        while (lexer.peek() != JsonToken.EOF) {
+            result.add(mapper.apply(parser.parse(projection)));
+            JsonToken next = lexer.peek();
+            if (next != JsonToken.EOF) {
+                if (next != JsonToken.COMMA) {
+                    throw new JsonException("Expected Token %s but found %s".formatted(JsonToken.COMMA, next));
+                }
+                lexer.consume();
+                if (!last && lexer.peek() == JsonToken.EOF) {
+                    throw new JsonException("Unexpected token: " + JsonToken.COMMA);
+                }
+            }
+        }
+        if (!last && result.isEmpty()) {
+            throw new JsonException("Unexpected token: " + JsonToken.COMMA);
+        }
+        return result;
+    }
+
+    /**
+     * Decodes the records of the lines between the given offsets, which start
+     * at the given position of the whole input.
+     */
+    private <T> List<T> decodeChunk(byte[] src, int from, int to, long origin, Class<T> type,
+            Projection projection) {
+        Utf8Lexer lexer = new Utf8Lexer(src, from, 0);
+        JsonParser parser = new JsonParser(lexer, numberMode, new KeyTable(KeyTable.DEFAULT_CAPACITY));
+        JsonConverter converter = new JsonConverter();
+        List<T> result = new ArrayList<>();
+        for (int line = from; line < to;) {
+            int newline = line;
+            while (newline < to && src[newline] != '\n') {
+                newline++;
+            }
+            lexer.reset(src, line, newline - line);
+            try {
+                if (lexer.peek() != JsonToken.EOF) {
+                    JsonNode node = parser.parse(projection);
+                    if (lexer.peek() != JsonToken.EOF) {
+                        throw new JsonException("Unexpected token after value: " + lexer.peek());
+                    }
+                    result.add(converter.convert(node.getOriginalType(), type));
+                }
+            } catch (JsonException e) {
+                throw new LineFailure(origin + line - from, e);
+            }
+            line = newline + 1;
+        }
+        return result;
+    }
+
+    /**
+     * Runs the tasks on the pool. In order, every result is put in the slot
+     * of its chunk; otherwise results are appended as the chunks complete.
+     * The first failure cancels the tasks that are still pending.
+     */
+    private <T> List<T> run(List<Callable<List<T>>> tasks, boolean ordered) {
+        CompletionService<List<T>> completion = new ExecutorCompletionService<>(workers.pool());
+        List<Future<List<T>>> futures = new ArrayList<>(tasks.size());
+        for (Callable<List<T>> task : tasks) {
+            futures.add(completion.submit(task));
+        }
+        List<T> result = new ArrayList<>();
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                List<T> chunk = completion.take().get();
+                if (!ordered) {
+                    result.addAll(chunk);
+                }
+            }
+            if (ordered) {
+                for (Future<List<T>> future : futures) {
+                    result.addAll(future.resultNow());
+                }
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JsonException("Interrupted while decoding", e);
+        } catch (ExecutionException e) {
+            throw WorkerPool.unwrap(e);
+        } finally {
+            for (Future<List<T>> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static byte[] read(FileChannel channel, long from, long to) throws IOException {
+        byte[] chunk = new byte[(int) (to - from)];
+        channel.map(FileChannel.MapMode.READ_ONLY, from, chunk.length).get(chunk);
+        return chunk;
+    }
+
+    private int chunkSize(long length) {
+        long size = length / ((long) workers.parallelism() * CHUNKS_PER_THREAD);
+        return (int) Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, size));
+    }
+
+    /**
+     * Returns the offset just past the first newline at or after the given
+     * offset, or the end of the input if there is none.
+     */
+    private static int endOfLine(byte[] src, int from, int end) {
+        while (from < end && src[from] != '\n') {
+            from++;
+        }
+        return Math.min(from + 1, end);
+    }
+
+    private static long endOfLine(FileChannel channel, long from, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_SIZE);
+        while (from < end) {
+            buffer.clear();
+            int read = channel.read(buffer, from);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return from + i + 1;
+                }
+            }
+            from += read;
+        }
+        return end;
+    }
+
+    private static long countLines(byte[] src, int from, int to) {
+        long lines = 1;
+        for (int i = from; i < to; i++) {
+            if (src[i] == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static long countLines(FileChannel channel, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_SIZE);
+        long lines = 1;
+        for (long from = 0; from < to;) {
+            buffer.clear().limit((int) Math.min(SCAN_SIZE, to - from));
+            int read = channel.read(buffer, from);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    lines++;
+                }
+            }
+            from += read;
+        }
+        return lines;
+    }
+
+    /**
+     * A record that failed to decode, with the position of its line in the
+     * whole input, which is turned into a line number once the failing task
+     * is known.
+     */
+    private static final class LineFailure extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long position;
+
+        LineFailure(long position, JsonException cause) {
+            super(cause.getMessage(), cause, false, false);
+            this.position = position;
+        }
+
+        JsonException report(long line) {
+            return new JsonException("Invalid record on line %d: %s".formatted(line, getMessage()), getCause());
+        }
+    }
+
+    /**
+     * Finds where a top-level array can be cut between two elements, in one
+     * pass over the input that may be fed in blocks. Brackets and braces are
+     * counted outside of strings only, tracking escapes so that an escaped
+     * quote does not end a string. A comma at the top level becomes a cut
+     * once the chunk before it has reached the chunk size, so only one pair
+     * of offsets is kept per chunk however many elements there are.
+     */
+    private static final class ArrayScanner {
+
+        private final long chunkSize;
+        private long[] cuts;
+        private int count;
+        private boolean started;
+        private boolean closed;
+        private boolean string;
+        private boolean escaped;
+        private int depth;
+
+        ArrayScanner(long chunkSize) {
+            this.chunkSize = chunkSize;
+            this.cuts = new long[16];
+        }
+
+        void scan(byte[] src, int from, int to, long base) {
+            for (int i = from; i < to; i++) {
+                byte b = src[i];
+                if (closed) {
+                    if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                        throw new JsonException("Unexpected character '%c' after the top-level array".formatted((char) (b & 0xFF)));
+                    }
+                } else if (!started) {
+                    if (b == '[') {
+                        started = true;
+                        add(base + i + 1);
+                    } else if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                        throw new JsonException("Expected a top-level array but found '%c'".formatted((char) (b & 0xFF)));
+                    }
+                } else if (string) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        string = false;
+                    }
+                } else if (b == '"') {
+                    string = true;
+                } else if (b == '[' || b == '{') {
+                    depth++;
+                } else if (depth > 0 && (b == ']' || b == '}')) {
+                    depth--;
+                } else if (b == ']') {
+                    add(base + i);
+                    closed = true;
+                } else if (b == '}') {
+                    throw new JsonException("Expected Token %s but found %s".formatted(JsonToken.RIGHT_BRACKET, JsonToken.RIGHT_BRACE));
+                } else if (b == ',' && depth == 0 && base + i - cuts[count - 1] >= chunkSize) {
+                    add(base + i);
+                    add(base + i + 1);
+                }
+            }
+        }
+
+        /**
+         * Returns the cuts as pairs of start and end offsets of the chunks.
+         */
+        long[] finish() {
+            if (!closed) {
+                throw new JsonException("Unexpected end of input inside the top-level array");
+            }
+            return Arrays.copyOf(cuts, count);
+        }
+
+        private void add(long offset) {
+            if (count == cuts.length) {
+                cuts = Arrays.copyOf(cuts, count * 2);
+            }
+            cuts[count++] = offset;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package no.foundation.serializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import no.foundation.serializer.exceptions.JsonException;
+
+/**
+ * Encodes the elements of large collections on several cores. The elements
+ * are cut into consecutive chunks that are each written into a sink of their
+ * own on the serializer's {@link WorkerPool}, and the chunks are appended to the output in
+ * order as they complete. Every element is written with the separator and
+ * indentation it has at its index in the whole collection, so the output is
+ * the same as when encoding sequentially. Collections nested inside a chunk
+ * are encoded sequentially.
+ */
+final class ParallelEncoder {
+
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final WorkerPool workers;
+    private final int threshold;
+
+    ParallelEncoder(WorkerPool workers, int threshold) {
+        this.workers = workers;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Returns whether a collection of the given size is encoded in parallel.
+     */
+    boolean splits(int size) {
+        return size >= threshold;
+    }
+
+    /**
+     * Writes all the elements of an array, without its brackets, to the sink.
+     * The first failure cancels the chunks that are still pending.
+     */
+    void writeElements(Object[] values, int indent, boolean formatted, JsonSink sink) {
+        int chunkSize = Math.ceilDiv(values.length, Math.min(values.length, workers.parallelism() * CHUNKS_PER_THREAD));
+        List<Future<JsonSink>> futures = new ArrayList<>();
+        try {
+            for (int from = 0; from < values.length; from += chunkSize) {
+                int start = from;
+                int end = Math.min(values.length, from + chunkSize);
+                futures.add(workers.pool().submit(() -> {
+                    JsonSink part = sink.fork();
+                    new JsonStreamEncoder(part, formatted).writeElements(values, start, end, indent);
+                    return part;
+                }));
+            }
+            for (Future<JsonSink> future : futures) {
+                sink.append(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JsonException("Interrupted while encoding", e);
+        } catch (ExecutionException e) {
+            throw WorkerPool.unwrap(e);
+        } finally {
+            for (Future<JsonSink> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+}
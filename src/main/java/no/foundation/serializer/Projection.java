@@ -0,0 +1,139 @@
+package no.foundation.serializer;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import no.foundation.serializer.annotations.JsonIgnore;
+
+/**
+ * The object members a decode actually needs, as a tree of member names.
+ * Arrays are transparent: the projection of an array applies to each of its
+ * elements. A member that is not in the projection is skipped by the parser,
+ * and {@link #ALL} keeps a value with everything in it.
+ * <p>
+ * A projection is either given as dotted paths or derived from the record
+ * components or fields {@link JsonConverter} binds for a class. Derived
+ * projections may be cyclic for recursive classes, and are cached per class.
+ */
+final class Projection {
+
+    static final Projection ALL = new Projection(null);
+
+    private static final ClassValue<Projection> TYPES = new ClassValue<>() {
+        @Override
+        protected Projection computeValue(Class<?> type) {
+            return of(type, new HashMap<>());
+        }
+    };
+
+    private final Map<String, Projection> members;
+
+    private Projection(Map<String, Projection> members) {
+        this.members = members;
+    }
+
+    /**
+     * Returns the projection of the named member, or null if the member is
+     * not needed.
+     */
+    Projection member(String name) {
+        return members == null ? this : members.get(name);
+    }
+
+    /**
+     * Returns the projection of what is bound when decoding to the given
+     * class: the members named by its record components or declared fields,
+     * recursively for members that are themselves records or classes of the
+     * application, or collections of them. Anything else is kept whole.
+     */
+    static Projection of(Class<?> type) {
+        return TYPES.get(type);
+    }
+
+    /**
+     * Returns the projection that keeps the given paths, each a list of
+     * member names separated by dots. The value at the end of a path is kept
+     * whole.
+     */
+    static Projection of(Collection<String> paths) {
+        Projection root = new Projection(new HashMap<>());
+        for (String path : paths) {
+            if (path.isEmpty()) {
+                throw new IllegalArgumentException("Empty projection path");
+            }
+            Projection node = root;
+            String[] names = path.split("\\.", -1);
+            for (int i = 0; i < names.length && node != ALL; i++) {
+                if (names[i].isEmpty()) {
+                    throw new IllegalArgumentException("Empty member name in projection path: " + path);
+                }
+                if (i == names.length - 1) {
+                    node.members.put(names[i], ALL);
+                } else {
+                    node = node.members.computeIfAbsent(names[i], name -> new Projection(new HashMap<>()));
+                }
+            }
+        }
+        return root;
+    }
+
+    private static Projection of(Type type, Map<Class<?>, Projection> seen) {
+        if (type instanceof ParameterizedType parameterized
+                && parameterized.getRawType() instanceof Class<?> raw
+                && Collection.class.isAssignableFrom(raw)) {
+            return of(parameterized.getActualTypeArguments()[0], seen);
+        }
+        if (type instanceof GenericArrayType array) {
+            return of(array.getGenericComponentType(), seen);
+        }
+        if (!(type instanceof Class<?> c) || !isBound(c)) {
+            return ALL;
+        }
+        Projection projection = seen.get(c);
+        if (projection != null) {
+            return projection;
+        }
+        projection = new Projection(new HashMap<>());
+        seen.put(c, projection);
+        if (c.isRecord()) {
+            for (RecordComponent component : c.getRecordComponents()) {
+                if (!isIgnored(component.getAnnotation(JsonIgnore.class))) {
+                    projection.members.put(component.getName(), of(component.getGenericType(), seen));
+                }
+            }
+        } else {
+            for (Field field : c.getDeclaredFields()) {
+                if (!isIgnored(field.getAnnotation(JsonIgnore.class))) {
+                    projection.members.put(field.getName(), of(field.getGenericType(), seen));
+                }
+            }
+        }
+        return projection;
+    }
+
+    /**
+     * Returns whether {@link JsonConverter} binds objects to the class member
+     * by member, rather than keeping them as maps or failing.
+     */
+    private static boolean isBound(Class<?> type) {
+        if (type.isRecord()) {
+            return true;
+        }
+        return !type.isPrimitive()
+                && !type.isArray()
+                && !type.isInterface()
+                && !type.isEnum()
+                && !Modifier.isAbstract(type.getModifiers())
+                && !type.getName().startsWith("java.");
+    }
+
+    private static boolean isIgnored(JsonIgnore annotation) {
+        return annotation != null && annotation.onlyDecoder();
+    }
+}
@@ -0,0 +1,34 @@
+package no.foundation.serializer;
+
+/**
+ * Portable {@link StructuralIndexer} that classifies one byte at a time.
+ */
+final class ScalarStructuralIndexer extends StructuralIndexer {
+
+    @Override
+    void classify(byte[] src, int offset, long[] masks) {
+        long quote = 0;
+        long backslash = 0;
+        long structural = 0;
+        long whitespace = 0;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            long bit = 1L << i;
+            switch (src[offset + i]) {
+                case '"' ->
+                    quote |= bit;
+                case '\\' ->
+                    backslash |= bit;
+                case '{', '}', '[', ']', ':', ',' ->
+                    structural |= bit;
+                case ' ', '\t', '\n', '\r' ->
+                    whitespace |= bit;
+                default -> {
+                }
+            }
+        }
+        masks[QUOTE] = quote;
+        masks[BACKSLASH] = backslash;
+        masks[STRUCTURAL] = structural;
+        masks[WHITESPACE] = whitespace;
+    }
+}
@@ -0,0 +1,121 @@
+package no.foundation.serializer;
+
+import java.util.Arrays;
+
+/**
+ * First stage of the two-stage decoder. Finds the positions of every token in
+ * UTF-8 input, 64 bytes at a time: structural characters and scalar starts
+ * outside of strings, plus the opening and closing quote of every string. The
+ * {@link Utf8Lexer} then jumps from position to position instead of scanning
+ * whitespace and string contents byte by byte.
+ * <p>
+ * Subclasses only classify the bytes of a block into bit masks; the string
+ * and escape tracking on those masks is shared.
+ */
+abstract class StructuralIndexer {
+
+    static final int BLOCK_SIZE = 64;
+
+    static final int QUOTE = 0;
+    static final int BACKSLASH = 1;
+    static final int STRUCTURAL = 2;
+    static final int WHITESPACE = 3;
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * Returns the vectorized indexer when the incubating Vector API module is
+     * available in this JVM, and the scalar one otherwise.
+     */
+    static StructuralIndexer create() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            return new VectorStructuralIndexer();
+        }
+        return new ScalarStructuralIndexer();
+    }
+
+    /**
+     * Fills {@code masks} with one bit per byte of the block starting at
+     * {@code offset}, which always has {@link #BLOCK_SIZE} readable bytes.
+     */
+    abstract void classify(byte[] src, int offset, long[] masks);
+
+    /**
+     * Builds the index for the given range of the array.
+     */
+    Index index(byte[] src, int offset, int length) {
+        long[] masks = new long[4];
+        byte[] tail = new byte[BLOCK_SIZE];
+        int[] positions = new int[Math.max(16, length / 8)];
+        int count = 0;
+        long escapeCarry = 0;
+        long stringCarry = 0;
+        long scalarCarry = 0;
+        int limit = offset + length;
+        for (int block = offset; block < limit; block += BLOCK_SIZE) {
+            int size = Math.min(BLOCK_SIZE, limit - block);
+            if (size == BLOCK_SIZE) {
+                classify(src, block, masks);
+            } else {
+                Arrays.fill(tail, (byte) ' ');
+                System.arraycopy(src, block, tail, 0, size);
+                classify(tail, 0, masks);
+            }
+
+            long escaped = escapeCarry;
+            long candidates = masks[BACKSLASH] & ~escaped;
+            escapeCarry = 0;
+            while (candidates != 0) {
+                int i = Long.numberOfTrailingZeros(candidates);
+                if (i == BLOCK_SIZE - 1) {
+                    escapeCarry = 1;
+                    break;
+                }
+                escaped |= 1L << (i + 1);
+                candidates &= ~(3L << i);
+            }
+
+            long quotes = masks[QUOTE] & ~escaped;
+            long inString = prefixXor(quotes) ^ stringCarry;
+            stringCarry = inString >> 63;
+
+            long scalar = ~(masks[STRUCTURAL] | masks[WHITESPACE] | masks[QUOTE]);
+            long scalarStart = scalar & ~(scalar << 1 | scalarCarry);
+            scalarCarry = scalar >>> 63;
+
+            long tokens = (masks[STRUCTURAL] | scalarStart) & ~inString | quotes;
+            if (size < BLOCK_SIZE) {
+                tokens &= (1L << size) - 1;
+            }
+
+            if (positions.length - count < BLOCK_SIZE) {
+                positions = Arrays.copyOf(positions, positions.length * 2 + BLOCK_SIZE);
+            }
+            while (tokens != 0) {
+                positions[count++] = block + Long.numberOfTrailingZeros(tokens);
+                tokens &= tokens - 1;
+            }
+        }
+        return new Index(positions, count);
+    }
+
+    /**
+     * Sets every bit from an opening quote up to, but excluding, its closing
+     * quote.
+     */
+    private static long prefixXor(long bits) {
+        bits ^= bits << 1;
+        bits ^= bits << 2;
+        bits ^= bits << 4;
+        bits ^= bits << 8;
+        bits ^= bits << 16;
+        bits ^= bits << 32;
+        return bits;
+    }
+
+    /**
+     * Absolute positions, in ascending order, of the tokens of the input.
+     */
+    record Index(int[] positions, int count) {
+    }
+}
@@ -0,0 +1,89 @@
+package no.foundation.serializer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * SIMD-within-a-register helpers that test eight bytes at a time with plain
+ * {@code long} arithmetic. Words are loaded little-endian, so the first byte
+ * of the input is the lowest byte of the word and the first match is found
+ * with {@link Long#numberOfTrailingZeros(long)}. Every test is exact per byte:
+ * no carry or borrow crosses from one byte into the next.
+ */
+final class Swar {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INTS = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long ONES = 0x0101_0101_0101_0101L;
+    private static final long HIGH_BITS = 0x8080_8080_8080_8080L;
+    private static final long LOW_BITS = 0x7F7F_7F7F_7F7F_7F7FL;
+
+    private static final long SPACES = ONES * ' ';
+    private static final long TABS = ONES * '\t';
+    private static final long LINE_FEEDS = ONES * '\n';
+    private static final long CARRIAGE_RETURNS = ONES * '\r';
+    private static final long ZEROS = ONES * '0';
+
+    static final int TRUE = literal("true");
+    static final int NULL = literal("null");
+    static final int FALS = literal("fals");
+
+    private Swar() {
+    }
+
+    static long load(byte[] src, int offset) {
+        return (long) LONGS.get(src, offset);
+    }
+
+    static int loadInt(byte[] src, int offset) {
+        return (int) INTS.get(src, offset);
+    }
+
+    /**
+     * Returns how many of the eight bytes of the word, from the first, are
+     * JSON whitespace.
+     */
+    static int leadingWhitespace(long word) {
+        long whitespace = zeroBytes(word ^ SPACES)
+                | zeroBytes(word ^ TABS)
+                | zeroBytes(word ^ LINE_FEEDS)
+                | zeroBytes(word ^ CARRIAGE_RETURNS);
+        return Long.numberOfTrailingZeros(~whitespace & HIGH_BITS) >>> 3;
+    }
+
+    /**
+     * Returns how many of the eight bytes of the word, from the first, are
+     * ASCII digits.
+     */
+    static int leadingDigits(long word) {
+        long offsets = word ^ ZEROS;
+        long nonDigits = ((offsets & LOW_BITS) + ONES * (127 - 9) | offsets) & HIGH_BITS;
+        return Long.numberOfTrailingZeros(nonDigits) >>> 3;
+    }
+
+    /**
+     * Converts a word of eight ASCII digits to their value, pairing up the
+     * digits in three multiplications.
+     */
+    static long parseEightDigits(long word) {
+        long value = word - ZEROS;
+        value = value * 10 + (value >>> 8);
+        value = ((value & 0x0000_00FF_0000_00FFL) * (100 + (1_000_000L << 32))
+                + (value >>> 16 & 0x0000_00FF_0000_00FFL) * (1 + (10_000L << 32))) >>> 32;
+        return value;
+    }
+
+    /**
+     * Sets the high bit of every byte of the word that is zero.
+     */
+    private static long zeroBytes(long word) {
+        long low = (word & LOW_BITS) + LOW_BITS;
+        return ~(low | word | LOW_BITS);
+    }
+
+    private static int literal(String text) {
+        return text.charAt(0) | text.charAt(1) << 8 | text.charAt(2) << 16 | text.charAt(3) << 24;
+    }
+}
@@ -0,0 +1,117 @@
+package no.foundation.serializer;
+
+import java.util.Arrays;
+import no.foundation.serializer.exceptions.JsonException;
+
+/**
+ * Flat encoding of every token of a UTF-8 document in a {@code long[]}, with
+ * string contents left in the source array. Each token takes one word: the
+ * {@link JsonToken} ordinal in the top four bits, a 28-bit payload and a
+ * 32-bit operand.
+ * <ul>
+ * <li>An opening brace or bracket has the index of its closing word as
+ * operand, so a whole value can be skipped in one step.</li>
+ * <li>A string has the offset of its contents as operand and their length plus
+ * an escape flag as payload.</li>
+ * <li>A number has its offset as operand and its length plus sign and
+ * decimal flags as payload. It is followed by two words: the accumulated
+ * mantissa, and the digit count, scale and exponent.</li>
+ * </ul>
+ * The tape only checks that brackets are balanced; the grammar is checked by
+ * whoever walks it.
+ *
+ * @param source the UTF-8 input the tape points into.
+ * @param words the encoded tokens.
+ * @param size the number of words in use.
+ */
+record Tape(byte[] source, long[] words, int size) {
+
+    static final int TYPE_SHIFT = 60;
+    static final int PAYLOAD_SHIFT = 32;
+    static final long PAYLOAD_MASK = (1L << 28) - 1;
+    static final long OPERAND_MASK = 0xFFFF_FFFFL;
+
+    // Strings and numbers use the same flag bits for different purposes.
+    static final long ESCAPED = 1L << 27;
+    static final long NEGATIVE = 1L << 27;
+    static final long DECIMAL = 1L << 26;
+    static final long LENGTH_MASK = DECIMAL - 1;
+
+    private static final JsonToken[] TYPES = JsonToken.values();
+
+    /**
+     * Scans the given range of the array into a tape.
+     */
+    static Tape build(byte[] src, int offset, int length, StructuralIndexer.Index index) {
+        Utf8Lexer lexer = new Utf8Lexer(src, offset, length, index);
+        long[] words = new long[Math.max(16, length / 4)];
+        int size = 0;
+        int[] open = new int[16];
+        int depth = 0;
+        JsonToken token;
+        while ((token = lexer.peek()) != JsonToken.EOF) {
+            if (words.length - size < 3) {
+                words = Arrays.copyOf(words, words.length * 2);
+            }
+            switch (token) {
+                case LEFT_BRACE, LEFT_BRACKET -> {
+                    if (depth == open.length) {
+                        open = Arrays.copyOf(open, depth * 2);
+                    }
+                    open[depth++] = size;
+                    words[size++] = word(token, 0, 0);
+                }
+                case RIGHT_BRACE, RIGHT_BRACKET -> {
+                    if (depth == 0) {
+                        throw new JsonException("Unexpected token: " + token);
+                    }
+                    words[open[--depth]] |= size;
+                    words[size++] = word(token, 0, 0);
+                }
+                case STRING -> {
+                    long payload = (lexer.escaped ? ESCAPED : 0) | checkLength(lexer.end - lexer.start - 1);
+                    words[size++] = word(token, payload, lexer.start + 1);
+                }
+                case NUMBER -> {
+                    long flags = (lexer.negative ? NEGATIVE : 0) | (lexer.decimal ? DECIMAL : 0);
+                    long payload = flags | checkLength(lexer.end - lexer.start);
+                    words[size++] = word(token, payload, lexer.start);
+                    words[size++] = lexer.mantissa;
+                    words[size++] = (long) Math.min(lexer.digits, 0xFFFF) << 48
+                            | (long) Math.min(lexer.scale, 0xFFFF) << 32
+                            | lexer.exponent & OPERAND_MASK;
+                }
+                default ->
+                    words[size++] = word(token, 0, 0);
+            }
+            lexer.consume();
+        }
+        if (depth > 0) {
+            throw new JsonException("Unexpected end of input");
+        }
+        return new Tape(src, words, size);
+    }
+
+    static JsonToken type(long word) {
+        return TYPES[(int) (word >>> TYPE_SHIFT)];
+    }
+
+    static long payload(long word) {
+        return word >>> PAYLOAD_SHIFT & PAYLOAD_MASK;
+    }
+
+    static int operand(long word) {
+        return (int) word;
+    }
+
+    private static long word(JsonToken type, long payload, int operand) {
+        return (long) type.ordinal() << TYPE_SHIFT | payload << PAYLOAD_SHIFT | operand & OPERAND_MASK;
+    }
+
+    private static long checkLength(int length) {
+        if (length > LENGTH_MASK) {
+            throw new JsonException("Token of %d bytes is too long for a tape".formatted(length));
+        }
+        return length;
+    }
+}
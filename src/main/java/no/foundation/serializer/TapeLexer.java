@@ -0,0 +1,85 @@
+package no.foundation.serializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lexer that replays the tokens recorded in a {@link Tape}. Nothing is
+ * scanned or allocated per token; string and number text is only decoded
+ * from the source array when asked for.
+ */
+final class TapeLexer extends JsonLexer {
+
+    private final Tape tape;
+    private int cursor;
+
+    TapeLexer(Tape tape) {
+        this.tape = tape;
+    }
+
+    @Override
+    String value() {
+        if (token != JsonToken.STRING) {
+            return new String(tape.source(), start, end - start, StandardCharsets.ISO_8859_1);
+        }
+        return escaped
+                ? decodeString(tape.source(), start, end)
+                : new String(tape.source(), start, end - start, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    String key(KeyTable table) {
+        if (end - start > KeyTable.MAX_KEY_LENGTH) {
+            return value();
+        }
+        byte[] source = tape.source();
+        int hash = KeyTable.hash(source, start, end);
+        String key = table.get(hash, source, start, end);
+        if (key == null) {
+            key = value();
+            table.put(hash, source, start, end, key);
+        }
+        return key;
+    }
+
+    /**
+     * Skips a whole object or array in one step, by jumping to the closing
+     * word its opening word links to.
+     */
+    @Override
+    void skipValue() {
+        JsonToken type = peek();
+        if (type == JsonToken.LEFT_BRACE || type == JsonToken.LEFT_BRACKET) {
+            cursor = Tape.operand(tape.words()[cursor - 1]) + 1;
+            consume();
+        } else {
+            super.skipValue();
+        }
+    }
+
+    @Override
+    JsonToken scan() {
+        if (cursor == tape.size()) {
+            return JsonToken.EOF;
+        }
+        long[] words = tape.words();
+        long word = words[cursor++];
+        JsonToken type = Tape.type(word);
+        if (type == JsonToken.STRING || type == JsonToken.NUMBER) {
+            long payload = Tape.payload(word);
+            start = Tape.operand(word);
+            end = start + (int) (payload & Tape.LENGTH_MASK);
+            if (type == JsonToken.STRING) {
+                escaped = (payload & Tape.ESCAPED) != 0;
+            } else {
+                negative = (payload & Tape.NEGATIVE) != 0;
+                decimal = (payload & Tape.DECIMAL) != 0;
+                mantissa = words[cursor++];
+                long shape = words[cursor++];
+                digits = (int) (shape >>> 48);
+                scale = (int) (shape >>> 32) & 0xFFFF;
+                exponent = (int) shape;
+            }
+        }
+        return type;
+    }
+}
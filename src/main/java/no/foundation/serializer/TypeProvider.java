@@ -9,6 +9,7 @@ import java.util.*;
 import java.util.concurrent.*;
 import javax.management.AttributeList;
 import no.foundation.serializer.exceptions.JsonException;
+import no.foundation.serializer.tree.JsonNumber;
 
 final class TypeProvider {
 
@@ -37,9 +38,9 @@ final class TypeProvider {
     }
 
     static boolean isTemporal(Class<?> type) {
-        return type.isInstance(Temporal.class)
-                || type.isInstance(Date.class)
-                || type.isInstance(TimeZone.class);
+        return Temporal.class.isAssignableFrom(type)
+                || Date.class.isAssignableFrom(type)
+                || TimeZone.class.isAssignableFrom(type);
     }
 
     static boolean isTemporal(Object value) {
@@ -52,25 +53,25 @@ final class TypeProvider {
         if (value instanceof String temporal) {
             try {
                 if (type.equals(Date.class)) {
-                    return Date.from(Instant.parse(temporal));
+                    return Date.from(JsonTemporals.parseInstant(temporal));
                 } else if (type.equals(java.sql.Date.class)) {
-                    return java.sql.Date.valueOf(LocalDate.parse(temporal));
+                    return java.sql.Date.valueOf(JsonTemporals.parseLocalDate(temporal));
                 } else if (type.equals(java.sql.Time.class)) {
                     return java.sql.Time.valueOf(LocalTime.parse(temporal));
                 } else if (type.equals(java.sql.Timestamp.class)) {
-                    return java.sql.Timestamp.valueOf(LocalDateTime.parse(temporal));
+                    return java.sql.Timestamp.valueOf(JsonTemporals.parseLocalDateTime(temporal));
                 } else if (type.equals(LocalDate.class)) {
-                    return LocalDate.parse(temporal);
+                    return JsonTemporals.parseLocalDate(temporal);
                 } else if (type.equals(LocalDateTime.class)) {
-                    return LocalDateTime.parse(temporal);
+                    return JsonTemporals.parseLocalDateTime(temporal);
                 } else if (type.equals(Instant.class)) {
-                    return Instant.parse(temporal);
+                    return JsonTemporals.parseInstant(temporal);
                 } else if (type.equals(LocalTime.class)) {
                     return LocalTime.parse(temporal);
                 } else if (type.equals(ZonedDateTime.class)) {
                     return ZonedDateTime.parse(temporal);
                 } else if (type.equals(OffsetDateTime.class)) {
-                    return OffsetDateTime.parse(temporal);
+                    return JsonTemporals.parseOffsetDateTime(temporal);
                 } else if (type.equals(Period.class)) {
                     return Period.parse(temporal);
                 } else if (type.equals(Year.class)) {
@@ -113,13 +114,45 @@ final class TypeProvider {
         } else if (type.equals(short.class) || type.equals(Short.class)) {
             return number.shortValue();
         } else if (type.equals(BigInteger.class)) {
-            return new BigInteger(number.toString());
+            return toBigInteger(number);
         } else if (type.equals(BigDecimal.class)) {
-            return new BigDecimal(number.toString());
+            return toBigDecimal(number);
         }
         return number;
     }
 
+    private static BigInteger toBigInteger(Number number) {
+        return switch (number) {
+            case BigDecimal decimal ->
+                decimal.toBigInteger();
+            case JsonNumber lazy ->
+                lazy.bigIntegerValue();
+            case Long value ->
+                BigInteger.valueOf(value);
+            case Integer value ->
+                BigInteger.valueOf(value);
+            default ->
+                new BigInteger(number.toString());
+        };
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        return switch (number) {
+            case BigInteger integer ->
+                new BigDecimal(integer);
+            case JsonNumber lazy ->
+                lazy.bigDecimalValue();
+            case Long value ->
+                BigDecimal.valueOf(value);
+            case Integer value ->
+                BigDecimal.valueOf(value);
+            case Double value ->
+                BigDecimal.valueOf(value);
+            default ->
+                new BigDecimal(number.toString());
+        };
+    }
+
     static <T> Collection<Object> getCollectionInstance(Class<T> type) {
         if (type.equals(Collection.class)) {
             return new ArrayList<>();
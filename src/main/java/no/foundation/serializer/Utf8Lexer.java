@@ -0,0 +1,512 @@
+package no.foundation.serializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import no.foundation.serializer.exceptions.JsonException;
+
+/**
+ * Lexer that scans UTF-8 encoded input directly, without decoding it to
+ * characters first. Only the text of string and number tokens is ever
+ * decoded, and only when it is asked for.
+ */
+final class Utf8Lexer extends JsonLexer {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final byte[] TRUE_LITERAL = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE_LITERAL = "false".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL_LITERAL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private final InputStream stream;
+    private final StructuralIndexer.Index index;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private int cursor;
+    private boolean open;
+
+    Utf8Lexer(byte[] src, int offset, int length) {
+        this(src, offset, length, null);
+    }
+
+    /**
+     * Constructs a lexer that takes token positions from a structural index of
+     * the same range instead of scanning for them.
+     */
+    Utf8Lexer(byte[] src, int offset, int length, StructuralIndexer.Index index) {
+        this.stream = null;
+        this.index = index;
+        this.buffer = src;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    Utf8Lexer(InputStream stream) {
+        this.stream = stream;
+        this.index = null;
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Constructs a lexer that is given its input in chunks through
+     * {@link #feed(ByteBuffer)}. Running out of input before
+     * {@link #endOfInput()} throws {@link NeedMoreInput}; after a
+     * {@link #rewind()} the interrupted token is scanned again from its start
+     * once more input has been fed.
+     */
+    Utf8Lexer() {
+        this.stream = null;
+        this.index = null;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.open = true;
+    }
+
+    /**
+     * Appends the remaining bytes of the chunk to the buffer, dropping what
+     * precedes the current token first.
+     */
+    void feed(ByteBuffer chunk) {
+        int length = chunk.remaining();
+        if (buffer.length - limit < length) {
+            compact();
+            if (buffer.length - limit < length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, limit + length));
+            }
+        }
+        chunk.get(buffer, limit, length);
+        limit += length;
+    }
+
+    void endOfInput() {
+        open = false;
+    }
+
+    void rewind() {
+        position = start;
+        token = null;
+    }
+
+    /**
+     * Points a lexer constructed over an array at a new range, so that it can
+     * be reused for a sequence of documents.
+     */
+    void reset(byte[] src, int offset, int length) {
+        buffer = src;
+        start = end = position = offset;
+        limit = offset + length;
+        token = null;
+    }
+
+    @Override
+    String value() {
+        if (token != JsonToken.STRING) {
+            return new String(buffer, start, end - start, StandardCharsets.ISO_8859_1);
+        }
+        return escaped
+                ? decodeString(buffer, start + 1, end)
+                : new String(buffer, start + 1, end - start - 1, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    String key(KeyTable table) {
+        int from = start + 1;
+        if (end - from > KeyTable.MAX_KEY_LENGTH) {
+            return value();
+        }
+        int hash = KeyTable.hash(buffer, from, end);
+        String key = table.get(hash, buffer, from, end);
+        if (key == null) {
+            key = value();
+            table.put(hash, buffer, from, end, key);
+        }
+        return key;
+    }
+
+    @Override
+    JsonToken scan() {
+        while (true) {
+            if (index != null) {
+                if (cursor == index.count()) {
+                    start = position = limit;
+                    return JsonToken.EOF;
+                }
+                position = index.positions()[cursor++];
+            }
+            start = position;
+            if (position >= limit && !fill()) {
+                return JsonToken.EOF;
+            }
+            byte c = buffer[position];
+            switch (c) {
+                case '{' -> {
+                    position++;
+                    return JsonToken.LEFT_BRACE;
+                }
+                case '}' -> {
+                    position++;
+                    return JsonToken.RIGHT_BRACE;
+                }
+                case '[' -> {
+                    position++;
+                    return JsonToken.LEFT_BRACKET;
+                }
+                case ']' -> {
+                    position++;
+                    return JsonToken.RIGHT_BRACKET;
+                }
+                case ',' -> {
+                    position++;
+                    return JsonToken.COMMA;
+                }
+                case ':' -> {
+                    position++;
+                    return JsonToken.COLON;
+                }
+                case '"' -> {
+                    return index != null ? indexedString() : scanString();
+                }
+                case ' ', '\t', '\n', '\r' ->
+                    skipWhitespace();
+                default -> {
+                    if (c == '-' || isDigit(c)) {
+                        return delimited(scanNumber());
+                    } else if (c == 't' || c == 'f' || c == 'n') {
+                        return delimited(scanLiteral());
+                    } else {
+                        throw new JsonException("Unexpected character '%c'".formatted(currentCodePoint()));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Skips the object or array whose opening token is current by matching
+     * braces and brackets, stepping over string contents, and returns the
+     * position just past its closing token. The skipped contents are not
+     * validated. When reading a stream, the token start follows the scan, so
+     * the buffer only ever holds the string being stepped over rather than
+     * the whole container, and the returned position is only meaningful for
+     * an array source.
+     */
+    int skipContainer() {
+        int depth = 0;
+        position = start;
+        while (position < limit || fill()) {
+            if (depth > 0) {
+                start = position;
+            }
+            switch (buffer[position++]) {
+                case '{', '[' ->
+                    depth++;
+                case '}', ']' -> {
+                    if (--depth == 0) {
+                        token = null;
+                        return position;
+                    }
+                }
+                case '"' -> {
+                    position--;
+                    scanString();
+                }
+                default -> {
+                }
+            }
+        }
+        throw new JsonException("Unterminated " + (token == JsonToken.LEFT_BRACE ? "object" : "array"));
+    }
+
+    /**
+     * Skips a whole object or array by matching braces when there is no
+     * structural index to keep in step with.
+     */
+    @Override
+    void skipValue() {
+        JsonToken type = peek();
+        if (index == null && (type == JsonToken.LEFT_BRACE || type == JsonToken.LEFT_BRACKET)) {
+            skipContainer();
+        } else {
+            super.skipValue();
+        }
+    }
+
+    /**
+     * Skips a run of whitespace eight bytes at a time. Whatever is left at
+     * the end of the buffer is skipped by the next scan.
+     */
+    private void skipWhitespace() {
+        position++;
+        while (position + Long.BYTES <= limit) {
+            int run = Swar.leadingWhitespace(Swar.load(buffer, position));
+            position += run;
+            if (run < Long.BYTES) {
+                return;
+            }
+        }
+        while (position < limit && isWhitespace(buffer[position])) {
+            position++;
+        }
+    }
+
+    private JsonToken scanLiteral() {
+        JsonToken literal = matchLiteral();
+        if (literal != null && !isLetter(peekByte())) {
+            return literal;
+        }
+        position = start;
+        while (isLetter(peekByte())) {
+            position++;
+        }
+        if (matches(TRUE_LITERAL)) {
+            return JsonToken.TRUE;
+        } else if (matches(FALSE_LITERAL)) {
+            return JsonToken.FALSE;
+        } else if (matches(NULL_LITERAL)) {
+            return JsonToken.NULL;
+        }
+        String value = new String(buffer, start, position - start, StandardCharsets.UTF_8);
+        throw new JsonException("Unexpected token: " + value);
+    }
+
+    /**
+     * Compares the next four bytes against {@code true}, {@code null} and
+     * {@code fals} as one int each.
+     */
+    private JsonToken matchLiteral() {
+        if (position + Integer.BYTES > limit) {
+            return null;
+        }
+        int word = Swar.loadInt(buffer, position);
+        if (word == Swar.TRUE) {
+            position += 4;
+            return JsonToken.TRUE;
+        } else if (word == Swar.NULL) {
+            position += 4;
+            return JsonToken.NULL;
+        } else if (word == Swar.FALS && position + 5 <= limit && buffer[position + 4] == 'e') {
+            position += 5;
+            return JsonToken.FALSE;
+        }
+        return null;
+    }
+
+    private JsonToken scanNumber() {
+        decimal = false;
+        negative = buffer[position] == '-';
+        mantissa = 0;
+        digits = 0;
+        scale = 0;
+        exponent = 0;
+        if (negative) {
+            position++;
+        }
+        scanDigits();
+        if (peekByte() == '.') {
+            decimal = true;
+            position++;
+            scale = scanDigits();
+        }
+        int c = peekByte();
+        if (c == 'e' || c == 'E') {
+            decimal = true;
+            position++;
+            c = peekByte();
+            boolean negativeExponent = c == '-';
+            if (c == '+' || c == '-') {
+                position++;
+            }
+            scanExponent();
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+        end = position;
+        return JsonToken.NUMBER;
+    }
+
+    /**
+     * Accumulates a run of digits into the mantissa, converting eight digits
+     * at a time while they are available in the buffer.
+     */
+    private int scanDigits() {
+        int count = 0;
+        while (position + Long.BYTES <= limit) {
+            long word = Swar.load(buffer, position);
+            if (Swar.leadingDigits(word) < Long.BYTES) {
+                break;
+            }
+            mantissa = mantissa * 100_000_000 + Swar.parseEightDigits(word);
+            position += Long.BYTES;
+            count += Long.BYTES;
+        }
+        int c;
+        while (isDigit(c = peekByte())) {
+            mantissa = mantissa * 10 + (c - '0');
+            position++;
+            count++;
+        }
+        if (count == 0) {
+            throw invalidNumber();
+        }
+        digits += count;
+        return count;
+    }
+
+    private void scanExponent() {
+        int c;
+        boolean empty = true;
+        while (isDigit(c = peekByte())) {
+            exponent = Math.min(MAX_EXPONENT, exponent * 10 + (c - '0'));
+            position++;
+            empty = false;
+        }
+        if (empty) {
+            throw invalidNumber();
+        }
+    }
+
+    /**
+     * Scans to the closing quote. Runs of plain bytes are skipped in a tight
+     * loop; a backslash only marks the string for escape decoding and skips
+     * the byte after it.
+     */
+    private JsonToken scanString() {
+        position++;
+        escaped = false;
+        while (true) {
+            byte[] bytes = buffer;
+            int i = position;
+            while (i < limit && bytes[i] != '"' && bytes[i] != '\\') {
+                i++;
+            }
+            position = i;
+            if (position >= limit) {
+                if (!fill()) {
+                    throw new JsonException("Unterminated string");
+                }
+            } else if (bytes[position] == '"') {
+                end = position++;
+                return JsonToken.STRING;
+            } else {
+                escaped = true;
+                if (++position >= limit && !fill()) {
+                    throw new JsonException("Unterminated string");
+                }
+                position++;
+            }
+        }
+    }
+
+    private JsonException invalidNumber() {
+        String value = new String(buffer, start, position - start, StandardCharsets.UTF_8);
+        return new JsonException("Invalid number: " + value);
+    }
+
+    private JsonToken indexedString() {
+        if (cursor == index.count()) {
+            throw new JsonException("Unterminated string");
+        }
+        end = index.positions()[cursor++];
+        position = end + 1;
+        escaped = true;
+        return JsonToken.STRING;
+    }
+
+    /**
+     * In indexed mode only the start of a number or literal is known, so
+     * anything glued to its end would otherwise be skipped silently.
+     */
+    private JsonToken delimited(JsonToken type) {
+        if (index != null && position < limit) {
+            switch (buffer[position]) {
+                case '{', '}', '[', ']', ':', ',', '"', ' ', '\t', '\n', '\r' -> {
+                }
+                default ->
+                    throw new JsonException("Unexpected character '%c'".formatted(currentCodePoint()));
+            }
+        }
+        return type;
+    }
+
+    private boolean matches(byte[] literal) {
+        return Arrays.equals(buffer, start, position, literal, 0, literal.length);
+    }
+
+    private int peekByte() {
+        return position < limit || fill() ? buffer[position] : -1;
+    }
+
+    private int currentCodePoint() {
+        int length = Math.min(4, limit - position);
+        return new String(buffer, position, length, StandardCharsets.UTF_8).codePointAt(0);
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private static boolean isLetter(int c) {
+        return (c | 0x20) >= 'a' && (c | 0x20) <= 'z';
+    }
+
+    /**
+     * Reads more input into the buffer, keeping the token being scanned.
+     * Input given as an array is scanned in place and never refilled.
+     */
+    private boolean fill() {
+        if (stream == null) {
+            if (open) {
+                throw NeedMoreInput.INSTANCE;
+            }
+            return false;
+        }
+        compact();
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        try {
+            int read = stream.read(buffer, limit, buffer.length - limit);
+            if (read == -1) {
+                return false;
+            }
+            limit += read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void compact() {
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, limit - start);
+            position -= start;
+            end -= start;
+            limit -= start;
+            start = 0;
+        }
+    }
+
+    /**
+     * Thrown by a lexer fed in chunks when a token runs past the input fed so
+     * far. Carries no stack trace, as it only signals that the caller should
+     * wait for the next chunk.
+     */
+    static final class NeedMoreInput extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        static final NeedMoreInput INSTANCE = new NeedMoreInput();
+
+        private NeedMoreInput() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package no.foundation.serializer;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link StructuralIndexer} that classifies a whole block with a handful of
+ * vector comparisons, using the widest byte vectors the CPU supports. Only
+ * loaded when the {@code jdk.incubator.vector} module is present.
+ */
+final class VectorStructuralIndexer extends StructuralIndexer {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED.length() <= BLOCK_SIZE
+            ? ByteVector.SPECIES_PREFERRED
+            : ByteVector.SPECIES_512;
+
+    @Override
+    void classify(byte[] src, int offset, long[] masks) {
+        long quote = 0;
+        long backslash = 0;
+        long structural = 0;
+        long whitespace = 0;
+        for (int i = 0; i < BLOCK_SIZE; i += SPECIES.length()) {
+            ByteVector block = ByteVector.fromArray(SPECIES, src, offset + i);
+            quote |= block.eq((byte) '"').toLong() << i;
+            backslash |= block.eq((byte) '\\').toLong() << i;
+            VectorMask<Byte> op = block.eq((byte) '{')
+                    .or(block.eq((byte) '}'))
+                    .or(block.eq((byte) '['))
+                    .or(block.eq((byte) ']'))
+                    .or(block.eq((byte) ':'))
+                    .or(block.eq((byte) ','));
+            structural |= op.toLong() << i;
+            VectorMask<Byte> space = block.eq((byte) ' ')
+                    .or(block.eq((byte) '\t'))
+                    .or(block.eq((byte) '\n'))
+                    .or(block.eq((byte) '\r'));
+            whitespace |= space.toLong() << i;
+        }
+        masks[QUOTE] = quote;
+        masks[BACKSLASH] = backslash;
+        masks[STRUCTURAL] = structural;
+        masks[WHITESPACE] = whitespace;
+    }
+}
@@ -0,0 +1,52 @@
+package no.foundation.serializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import no.foundation.serializer.exceptions.JsonException;
+
+/**
+ * The {@link ForkJoinPool} a serializer encodes and decodes in parallel on,
+ * shared by its {@link ParallelEncoder} and {@link ParallelDecoder}. The pool
+ * is created on first use. Its workers are daemon threads that retire when
+ * idle, so an unused serializer holds no threads.
+ */
+final class WorkerPool {
+
+    private final int parallelism;
+    private ForkJoinPool pool;
+
+    WorkerPool(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    int parallelism() {
+        return parallelism;
+    }
+
+    synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    /**
+     * Returns the exception to rethrow for a task that failed with the given
+     * exception: its cause if unchecked, wrapped otherwise. Errors are thrown
+     * straight away.
+     */
+    static RuntimeException unwrap(ExecutionException e) {
+        return switch (e.getCause()) {
+            case RuntimeException cause ->
+                cause;
+            case Error cause ->
+                throw cause;
+            case IOException cause ->
+                new UncheckedIOException(cause);
+            default ->
+                new JsonException(e.getCause());
+        };
+    }
+}
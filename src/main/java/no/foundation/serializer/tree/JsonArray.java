@@ -1,13 +1,15 @@
 package no.foundation.serializer.tree;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * Represents a JSON array, which is a list of {@link JsonNode} elements.
  */
 public final class JsonArray implements List<JsonNode>, JsonNode {
 
-    private final List<JsonNode> values;
+    private volatile List<JsonNode> values;
+    private Supplier<? extends List<JsonNode>> loader;
 
     /**
      * Constructs an empty JSON array.
@@ -16,6 +18,23 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
         this.values = new ArrayList<>();
     }
 
+    private JsonArray(Supplier<? extends List<JsonNode>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Creates a JSON array whose elements are only produced by the given
+     * loader the first time any of them is accessed. Errors raised by the
+     * loader surface from that first access. The loader runs once even when
+     * several threads access the node at the same time.
+     *
+     * @param loader supplies the mutable list of elements
+     * @return a JSON array backed by the loader
+     */
+    public static JsonArray deferred(Supplier<? extends List<JsonNode>> loader) {
+        return new JsonArray(Objects.requireNonNull(loader));
+    }
+
     public static JsonArray of(Object... values) {
         JsonConverter converter = new JsonConverter();
         JsonArray array = new JsonArray();
@@ -32,7 +51,28 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      * @return the list of {@link JsonNode} values in this array
      */
     public List<JsonNode> getValues() {
-        return values;
+        List<JsonNode> loaded = values;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = values;
+                if (loaded == null) {
+                    loaded = loader.get();
+                    values = loaded;
+                    loader = null;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Checks whether the elements of this JSON array have been produced, which
+     * is always the case unless it was created by {@link #deferred(Supplier)}.
+     *
+     * @return {@code true} if the elements are loaded, {@code false} otherwise
+     */
+    public boolean isLoaded() {
+        return values != null;
     }
 
     /**
@@ -42,7 +82,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public int size() {
-        return values.size();
+        return getValues().size();
     }
 
     /**
@@ -53,7 +93,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public boolean isEmpty() {
-        return values.isEmpty();
+        return getValues().isEmpty();
     }
 
     /**
@@ -65,7 +105,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public boolean contains(Object o) {
-        return values.contains(o);
+        return getValues().contains(o);
     }
 
     /**
@@ -75,7 +115,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public Iterator<JsonNode> iterator() {
-        return values.iterator();
+        return getValues().iterator();
     }
 
     /**
@@ -86,7 +126,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public Object[] toArray() {
-        return values.toArray();
+        return getValues().toArray();
     }
 
     /**
@@ -101,7 +141,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public <T> T[] toArray(T[] a) {
-        return values.toArray(a);
+        return getValues().toArray(a);
     }
 
     /**
@@ -113,7 +153,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public boolean add(JsonNode value) {
-        return values.add(value);
+        return getValues().add(value);
     }
 
     /**
@@ -126,7 +166,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public boolean remove(Object value) {
-        return values.remove(value);
+        return getValues().remove(value);
     }
 
     /**
@@ -140,7 +180,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public boolean containsAll(Collection<?> collection) {
-        return new HashSet<>(values).containsAll(collection);
+        return new HashSet<>(getValues()).containsAll(collection);
     }
 
     /**
@@ -153,7 +193,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public boolean addAll(Collection<? extends JsonNode> collection) {
-        return values.addAll(collection);
+        return getValues().addAll(collection);
     }
 
     /**
@@ -169,7 +209,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public boolean addAll(int index, Collection<? extends JsonNode> collection) {
-        return values.addAll(index, collection);
+        return getValues().addAll(index, collection);
     }
 
     /**
@@ -183,7 +223,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public boolean removeAll(Collection<?> collection) {
-        return values.removeAll(collection);
+        return getValues().removeAll(collection);
     }
 
     /**
@@ -197,7 +237,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public boolean retainAll(Collection<?> collection) {
-        return values.retainAll(collection);
+        return getValues().retainAll(collection);
     }
 
     /**
@@ -205,7 +245,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public void clear() {
-        values.clear();
+        getValues().clear();
     }
 
     /**
@@ -216,7 +256,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public JsonNode get(int index) {
-        return values.get(index);
+        return getValues().get(index);
     }
 
     /**
@@ -229,7 +269,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public JsonNode set(int index, JsonNode value) {
-        return values.set(index, value);
+        return getValues().set(index, value);
     }
 
     /**
@@ -241,7 +281,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public void add(int index, JsonNode value) {
-        values.add(index, value);
+        getValues().add(index, value);
     }
 
     /**
@@ -252,7 +292,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public JsonNode remove(int index) {
-        return values.remove(index);
+        return getValues().remove(index);
     }
 
     /**
@@ -265,7 +305,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public int indexOf(Object value) {
-        return values.indexOf(value);
+        return getValues().indexOf(value);
     }
 
     /**
@@ -278,7 +318,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public int lastIndexOf(Object value) {
-        return values.lastIndexOf(value);
+        return getValues().lastIndexOf(value);
     }
 
     /**
@@ -289,7 +329,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public ListIterator<JsonNode> listIterator() {
-        return values.listIterator();
+        return getValues().listIterator();
     }
 
     /**
@@ -302,7 +342,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public ListIterator<JsonNode> listIterator(int index) {
-        return values.listIterator(index);
+        return getValues().listIterator(index);
     }
 
     /**
@@ -315,7 +355,7 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public List<JsonNode> subList(int fromIndex, int toIndex) {
-        return values.subList(fromIndex, toIndex);
+        return getValues().subList(fromIndex, toIndex);
     }
 
     /**
@@ -325,19 +365,6 @@ public final class JsonArray implements List<JsonNode>, JsonNode {
      */
     @Override
     public String toString() {
-
-        String result = "[]";
-        if (!values.isEmpty()) {
-            StringBuilder builder = new StringBuilder();
-            builder.append("[");
-            for (JsonNode value : values) {
-                builder.append(value.toString());
-                builder.append(", ");
-            }
-            builder.delete(builder.length() - 2, builder.length());
-            builder.append("]");
-            result = builder.toString();
-        }
-        return result;
+        return JsonTreeWriter.toString(this, JsonFormat.COMPACT);
     }
 }
@@ -0,0 +1,84 @@
+package no.foundation.serializer.tree;
+
+/**
+ * How a {@link JsonNode} is laid out when written as JSON text: either
+ * compact, on a single line with a space after each colon and comma, or
+ * pretty, with every member and element on its own line indented by a given
+ * number of spaces per level. Either may also escape every character outside
+ * ASCII.
+ */
+public final class JsonFormat {
+
+    /**
+     * Single-line output, as produced by {@code toString()}.
+     */
+    public static final JsonFormat COMPACT = new JsonFormat(false, "", false);
+
+    /**
+     * Multi-line output indented by two spaces per level.
+     */
+    public static final JsonFormat PRETTY = new JsonFormat(true, "  ", false);
+
+    private final boolean pretty;
+    private final String indent;
+    private final boolean asciiOnly;
+
+    private JsonFormat(boolean pretty, String indent, boolean asciiOnly) {
+        this.pretty = pretty;
+        this.indent = indent;
+        this.asciiOnly = asciiOnly;
+    }
+
+    /**
+     * Returns a multi-line format indented by the given number of spaces per
+     * level.
+     *
+     * @param spaces the number of spaces per level of nesting.
+     * @return the format.
+     * @throws IllegalArgumentException if the number of spaces is negative.
+     */
+    public static JsonFormat pretty(int spaces) {
+        if (spaces < 0) {
+            throw new IllegalArgumentException("Indent must not be negative: " + spaces);
+        }
+        return spaces == 2 ? PRETTY : new JsonFormat(true, " ".repeat(spaces), false);
+    }
+
+    /**
+     * Checks whether this format puts members and elements on separate lines.
+     *
+     * @return true if this format is pretty, false if it is compact.
+     */
+    public boolean isPretty() {
+        return pretty;
+    }
+
+    /**
+     * Returns the text written once per level of nesting before each member
+     * or element of a pretty format.
+     *
+     * @return the indentation of one level.
+     */
+    public String indent() {
+        return indent;
+    }
+
+    /**
+     * Returns a format with the same layout as this one that escapes every
+     * character outside ASCII in string literals.
+     *
+     * @return the ASCII-only format.
+     */
+    public JsonFormat asciiOnly() {
+        return asciiOnly ? this : new JsonFormat(pretty, indent, true);
+    }
+
+    /**
+     * Checks whether this format escapes every character outside ASCII.
+     *
+     * @return true if the output is pure ASCII, false otherwise.
+     */
+    public boolean isAsciiOnly() {
+        return asciiOnly;
+    }
+}
@@ -1,5 +1,6 @@
 package no.foundation.serializer.tree;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -44,4 +45,17 @@ public sealed interface JsonNode permits JsonValue, JsonArray, JsonObject {
             }
         };
     }
+
+    /**
+     * Writes this node as JSON text to the given destination in a single pass
+     * over the tree, without building a string for any nested value. The
+     * destination is neither flushed nor closed.
+     *
+     * @param out the destination to append the JSON to.
+     * @param format the layout of the JSON.
+     * @throws IOException if appending to the destination fails.
+     */
+    default void writeTo(Appendable out, JsonFormat format) throws IOException {
+        new JsonTreeWriter(out, format).write(this, 0);
+    }
 }
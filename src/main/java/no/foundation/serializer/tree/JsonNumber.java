@@ -0,0 +1,138 @@
+package no.foundation.serializer.tree;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * A JSON number kept as its source text. The text is only parsed when one of
+ * the accessors is called, so numbers that are never read cost a single
+ * string.
+ */
+public final class JsonNumber extends Number {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String text;
+
+    /**
+     * Constructs a JsonNumber from the text of a JSON number.
+     *
+     * @param text the number as it appears in the JSON source.
+     */
+    public JsonNumber(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Returns the value of this number as an {@code int}, truncating any
+     * fraction.
+     *
+     * @return the value of this number as an {@code int}.
+     */
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    /**
+     * Returns the value of this number as a {@code long}, truncating any
+     * fraction.
+     *
+     * @return the value of this number as a {@code long}.
+     */
+    @Override
+    public long longValue() {
+        if (isIntegral() && text.length() < 19) {
+            return Long.parseLong(text);
+        }
+        return bigDecimalValue().longValue();
+    }
+
+    /**
+     * Returns the value of this number as a {@code float}.
+     *
+     * @return the value of this number as a {@code float}.
+     */
+    @Override
+    public float floatValue() {
+        return Float.parseFloat(text);
+    }
+
+    /**
+     * Returns the value of this number as a {@code double}.
+     *
+     * @return the value of this number as a {@code double}.
+     */
+    @Override
+    public double doubleValue() {
+        return Double.parseDouble(text);
+    }
+
+    /**
+     * Returns the exact value of this number as a {@link BigInteger},
+     * truncating any fraction.
+     *
+     * @return the value of this number as a {@link BigInteger}.
+     */
+    public BigInteger bigIntegerValue() {
+        return isIntegral()
+                ? new BigInteger(text)
+                : bigDecimalValue().toBigInteger();
+    }
+
+    /**
+     * Returns the exact value of this number as a {@link BigDecimal}.
+     *
+     * @return the value of this number as a {@link BigDecimal}.
+     */
+    public BigDecimal bigDecimalValue() {
+        return new BigDecimal(text);
+    }
+
+    /**
+     * Returns whether this number has neither a fraction nor an exponent.
+     *
+     * @return true if this number is written as an integer, false otherwise.
+     */
+    public boolean isIntegral() {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '.' || c == 'e' || c == 'E') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether this number has the same source text as another
+     * JsonNumber.
+     *
+     * @param o the object to compare with.
+     * @return true if both numbers have the same text, false otherwise.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof JsonNumber number && text.equals(number.text);
+    }
+
+    /**
+     * Returns the hash code of the source text of this number.
+     *
+     * @return the hash code of this number.
+     */
+    @Override
+    public int hashCode() {
+        return text.hashCode();
+    }
+
+    /**
+     * Returns the source text of this number.
+     *
+     * @return the number as it appeared in the JSON source.
+     */
+    @Override
+    public String toString() {
+        return text;
+    }
+}
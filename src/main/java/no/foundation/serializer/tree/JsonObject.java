@@ -3,7 +3,9 @@ package no.foundation.serializer.tree;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * A class representing a JSON object node. This class extends JsonNode and
@@ -11,7 +13,8 @@ import java.util.Set;
  */
 public final class JsonObject implements Map<String, JsonNode>, JsonNode {
 
-    private final Map<String, JsonNode> pairs;
+    private volatile Map<String, JsonNode> pairs;
+    private Supplier<? extends Map<String, JsonNode>> loader;
 
     /**
      * Constructs a new empty JsonObject. Uses a LinkedHashMap to maintain
@@ -21,13 +24,52 @@ public final class JsonObject implements Map<String, JsonNode>, JsonNode {
         this.pairs = new LinkedHashMap<>();
     }
 
+    private JsonObject(Supplier<? extends Map<String, JsonNode>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Creates a JsonObject whose key-value pairs are only produced by the given
+     * loader the first time any of them is accessed. Errors raised by the
+     * loader surface from that first access. The loader runs once even when
+     * several threads access the node at the same time.
+     *
+     * @param loader supplies the mutable map of key-value pairs.
+     * @return a JsonObject backed by the loader.
+     */
+    public static JsonObject deferred(Supplier<? extends Map<String, JsonNode>> loader) {
+        return new JsonObject(Objects.requireNonNull(loader));
+    }
+
     /**
      * Returns the internal map of key-value pairs in this JsonObject.
      *
      * @return the map of key-value pairs in this JsonObject.
      */
     public Map<String, JsonNode> getPairs() {
-        return pairs;
+        Map<String, JsonNode> loaded = pairs;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = pairs;
+                if (loaded == null) {
+                    loaded = loader.get();
+                    pairs = loaded;
+                    loader = null;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Checks whether the key-value pairs of this JsonObject have been
+     * produced, which is always the case unless it was created by
+     * {@link #deferred(Supplier)}.
+     *
+     * @return true if the pairs are loaded, false otherwise.
+     */
+    public boolean isLoaded() {
+        return pairs != null;
     }
 
     /**
@@ -37,7 +79,7 @@ public final class JsonObject implements Map<String, JsonNode>, JsonNode {
      */
     @Override
     public int size() {
-        return pairs.size();
+        return getPairs().size();
     }
 
     /**
@@ -47,7 +89,7 @@ public final class JsonObject implements Map<String, JsonNode>, JsonNode {
      */
     @Override
     public boolean isEmpty() {
-        return pairs.isEmpty();
+        return getPairs().isEmpty();
     }
 
     /**
@@ -59,7 +101,7 @@ public final class JsonObject implements Map<String, JsonNode>, JsonNode {
      */
     @Override
     public boolean containsKey(Object key) {
-        return pairs.containsKey(key);
+        return getPairs().containsKey(key);
     }
 
     /**
@@ -71,7 +113,7 @@ public final class JsonObject implements Map<String, JsonNode>, JsonNode {
      */
     @Override
     public boolean containsValue(Object value) {
-        return pairs.containsValue(value);
+        return getPairs().containsValue(value);
     }
 
     /**
@@ -84,7 +126,7 @@ public final class JsonObject implements Map<String, JsonNode>, JsonNode {
      */
     @Override
     public JsonNode get(Object key) {
-        return pairs.get(key);
+        return getPairs().get(key);
     }
 
     /**
@@ -97,7 +139,7 @@ public final class JsonObject implements Map<String, JsonNode>, JsonNode {
      */
     @Override
     public JsonNode put(String key, JsonNode value) {
-        return pairs.put(key, value);
+        return getPairs().put(key, value);
     }
 
     /**
@@ -110,7 +152,7 @@ public final class JsonObject implements Map<String, JsonNode>, JsonNode {
      */
     @Override
     public JsonNode remove(Object key) {
-        return pairs.remove(key);
+        return getPairs().remove(key);
     }
 
     /**
@@ -120,7 +162,7 @@ public final class JsonObject implements Map<String, JsonNode>, JsonNode {
      */
     @Override
     public void putAll(Map<? extends String, ? extends JsonNode> map) {
-        pairs.putAll(map);
+        getPairs().putAll(map);
     }
 
     /**
@@ -128,7 +170,7 @@ public final class JsonObject implements Map<String, JsonNode>, JsonNode {
      */
     @Override
     public void clear() {
-        pairs.clear();
+        getPairs().clear();
     }
 
     /**
@@ -138,7 +180,7 @@ public final class JsonObject implements Map<String, JsonNode>, JsonNode {
      */
     @Override
     public Set<String> keySet() {
-        return pairs.keySet();
+        return getPairs().keySet();
     }
 
     /**
@@ -148,7 +190,7 @@ public final class JsonObject implements Map<String, JsonNode>, JsonNode {
      */
     @Override
     public Collection<JsonNode> values() {
-        return pairs.values();
+        return getPairs().values();
     }
 
     /**
@@ -158,7 +200,7 @@ public final class JsonObject implements Map<String, JsonNode>, JsonNode {
      */
     @Override
     public Set<Entry<String, JsonNode>> entrySet() {
-        return pairs.entrySet();
+        return getPairs().entrySet();
     }
 
     /**
@@ -168,22 +210,7 @@ public final class JsonObject implements Map<String, JsonNode>, JsonNode {
      */
     @Override
     public String toString() {
-        if (pairs.isEmpty()) {
-            return "{}";
-        }
-        StringBuilder sb = new StringBuilder();
-        sb.append("{");
-        for (Entry<String, JsonNode> entry : pairs.entrySet()) {
-            String key = entry.getKey();
-            JsonNode value = entry.getValue();
-            sb.append('"');
-            sb.append(key);
-            sb.append("\": ");
-            sb.append(value);
-            sb.append(", ");
-        }
-        sb.replace(sb.length() - 2, sb.length(), "}");
-        return sb.toString();
+        return JsonTreeWriter.toString(this, JsonFormat.COMPACT);
     }
 
     /**
@@ -0,0 +1,184 @@
+package no.foundation.serializer.tree;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Writes a tree of nodes as JSON text into a single {@link Appendable} in one
+ * pass, so each value is copied once whatever its depth, instead of once per
+ * enclosing level as when every node builds its own string.
+ */
+final class JsonTreeWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Appendable out;
+    private final JsonFormat format;
+
+    JsonTreeWriter(Appendable out, JsonFormat format) {
+        this.out = out;
+        this.format = format;
+    }
+
+    /**
+     * Writes a node into a new string, for which no I/O error can occur.
+     */
+    static String toString(JsonNode node, JsonFormat format) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            new JsonTreeWriter(sb, format).write(node, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the text of a value that is written as a string: the ISO-8601
+     * text of an instant for a {@link Date}, as the encoder writes it, and
+     * {@code toString()} for anything else.
+     */
+    static String text(Object value) {
+        if (value.getClass() == Date.class) {
+            return ((Date) value).toInstant().toString();
+        }
+        return value.toString();
+    }
+
+    /**
+     * Returns the text as a JSON string literal, with non-ASCII characters
+     * left as they are.
+     */
+    static String quote(String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 2);
+        try {
+            quote(text, sb, false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Appends the text as a JSON string literal. Quotes, backslashes and
+     * control characters are always escaped, and characters outside ASCII
+     * only if asked to, in the same way as the encoder.
+     */
+    static void quote(CharSequence text, Appendable out, boolean ascii) throws IOException {
+        out.append('"');
+        int run = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && (c < 0x80 || !ascii)) {
+                continue;
+            }
+            out.append(text, run, i).append('\\');
+            switch (c) {
+                case '"', '\\' ->
+                    out.append(c);
+                case '\n' ->
+                    out.append('n');
+                case '\r' ->
+                    out.append('r');
+                case '\t' ->
+                    out.append('t');
+                case '\b' ->
+                    out.append('b');
+                case '\f' ->
+                    out.append('f');
+                default ->
+                    out.append('u').append(HEX[c >> 12]).append(HEX[c >> 8 & 0xF])
+                            .append(HEX[c >> 4 & 0xF]).append(HEX[c & 0xF]);
+            }
+            run = i + 1;
+        }
+        out.append(text, run, text.length()).append('"');
+    }
+
+    void write(JsonNode node, int depth) throws IOException {
+        switch (node) {
+            case JsonValue<?> value ->
+                writeValue(value.value());
+            case JsonArray array ->
+                writeArray(array, depth);
+            case JsonObject object ->
+                writeObject(object, depth);
+        }
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value.toString());
+        } else if (value instanceof String text) {
+            quote(text, out, format.isAsciiOnly());
+        } else {
+            quote(text(value), out, format.isAsciiOnly());
+        }
+    }
+
+    private void writeArray(JsonArray array, int depth) throws IOException {
+        Iterator<JsonNode> values = array.iterator();
+        if (!values.hasNext()) {
+            out.append("[]");
+            return;
+        }
+        out.append('[');
+        for (boolean first = true; values.hasNext(); first = false) {
+            separate(first, depth);
+            write(values.next(), depth + 1);
+        }
+        close(depth, ']');
+    }
+
+    private void writeObject(JsonObject object, int depth) throws IOException {
+        Iterator<Map.Entry<String, JsonNode>> entries = object.entrySet().iterator();
+        if (!entries.hasNext()) {
+            out.append("{}");
+            return;
+        }
+        out.append('{');
+        for (boolean first = true; entries.hasNext(); first = false) {
+            Map.Entry<String, JsonNode> entry = entries.next();
+            separate(first, depth);
+            quote(entry.getKey(), out, format.isAsciiOnly());
+            out.append(": ");
+            write(entry.getValue(), depth + 1);
+        }
+        close(depth, '}');
+    }
+
+    /**
+     * Starts a member or element: after a comma unless it is the first, and
+     * then on a new, indented line when pretty or after a space when not.
+     */
+    private void separate(boolean first, int depth) throws IOException {
+        if (!first) {
+            out.append(',');
+        }
+        if (format.isPretty()) {
+            out.append('\n');
+            indent(depth + 1);
+        } else if (!first) {
+            out.append(' ');
+        }
+    }
+
+    private void close(int depth, char bracket) throws IOException {
+        if (format.isPretty()) {
+            out.append('\n');
+            indent(depth);
+        }
+        out.append(bracket);
+    }
+
+    private void indent(int depth) throws IOException {
+        for (int i = 0; i < depth; i++) {
+            out.append(format.indent());
+        }
+    }
+}
@@ -20,6 +20,6 @@ public record JsonValue<T>(T value) implements JsonNode {
         } else if (value instanceof Number || value instanceof Boolean) {
             return value.toString();
         }
-        return "\"%s\"".formatted(value);
+        return JsonTreeWriter.quote(JsonTreeWriter.text(value));
     }
 }
@@ -1,9 +1,22 @@
 package no.foundation.tests;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import no.foundation.serializer.JsonSerializer;
+import no.foundation.serializer.exceptions.JsonException;
+import no.foundation.serializer.tree.JsonArray;
 import no.foundation.serializer.tree.JsonNode;
+import no.foundation.serializer.tree.JsonObject;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -42,4 +55,169 @@ public class JsonDecoderJsonNodeTest {
             });
         }
     }
+
+    @Test
+    public void decodeAllFromMappedFile() throws IOException {
+        File[] files = directory.listFiles();
+        assertNotNull(files);
+
+        JsonSerializer serializer = new JsonSerializer();
+
+        for (File file : files) {
+            String src = Files.readString(file.toPath());
+            JsonNode mapped = serializer.decode(file.toPath());
+            JsonNode expected = serializer.decode(src);
+            System.out.println("File name: " + file.getName());
+            System.out.println("Decoded: " + mapped);
+            assertEquals(expected.getOriginalType(), mapped.getOriginalType());
+        }
+    }
+
+    @Test
+    public void decodeAllFromTape() throws IOException {
+        File[] files = directory.listFiles();
+        assertNotNull(files);
+
+        JsonSerializer serializer = new JsonSerializer();
+        JsonSerializer taped = JsonSerializer.builder().tape(true).build();
+
+        for (File file : files) {
+            byte[] src = Files.readAllBytes(file.toPath());
+            JsonNode node = taped.decode(src);
+            System.out.println("File name: " + file.getName());
+            System.out.println("Decoded: " + node);
+            assertEquals(serializer.decode(src).getOriginalType(), node.getOriginalType());
+        }
+        assertThrows(JsonException.class, () -> taped.decode("[1, {\"a\": 2]".getBytes()));
+    }
+
+    @Test
+    public void decodeAllLazily() throws IOException {
+        File[] files = directory.listFiles();
+        assertNotNull(files);
+
+        JsonSerializer serializer = new JsonSerializer();
+        JsonSerializer lazy = JsonSerializer.builder().lazy(true).build();
+
+        for (File file : files) {
+            String src = Files.readString(file.toPath());
+            JsonNode node = lazy.decode(src);
+            System.out.println("File name: " + file.getName());
+            System.out.println("Decoded: " + node);
+            assertEquals(serializer.decode(src).getOriginalType(), node.getOriginalType());
+        }
+    }
+
+    @Test
+    public void decodeLazilyParsesOnAccess() {
+        JsonSerializer serializer = JsonSerializer.builder().lazy(true).build();
+        String src = "{\"id\": 7, \"tags\": [\"a\", \"]\"], \"broken\": {\"x\": }, \"nested\": {\"y\": [1, {\"z\": true}]}}";
+
+        JsonObject root = (JsonObject) serializer.decode(src);
+        assertEquals("7", root.get("id").toString());
+
+        JsonArray tags = (JsonArray) root.get("tags");
+        JsonObject nested = (JsonObject) root.get("nested");
+        assertFalse(tags.isLoaded());
+        assertFalse(nested.isLoaded());
+
+        assertEquals(2, tags.size());
+        assertTrue(tags.isLoaded());
+        assertFalse(nested.isLoaded());
+
+        JsonArray y = (JsonArray) nested.get("y");
+        assertFalse(y.isLoaded());
+        assertTrue(y.containsAll(List.of()));
+        assertTrue(y.isLoaded());
+        assertEquals("true", ((JsonObject) y.get(1)).get("z").toString());
+
+        assertThrows(JsonException.class, () -> root.get("broken").toString());
+    }
+
+    @Test
+    public void decodeLazilyLoadsOnceAcrossThreads() throws Exception {
+        JsonSerializer serializer = JsonSerializer.builder().lazy(true).build();
+        AtomicInteger loads = new AtomicInteger();
+        JsonArray shared = JsonArray.deferred(() -> {
+            loads.incrementAndGet();
+            return ((JsonArray) serializer.decode("[[1, {\"a\": 2}], [3]]")).getValues();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return shared.getOriginalType();
+                }));
+            }
+            start.countDown();
+            for (Future<Object> result : results) {
+                assertEquals(serializer.decode("[[1, {\"a\": 2}], [3]]").getOriginalType(), result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void decodeArrayInParallel() throws IOException {
+        File[] files = directory.listFiles();
+        assertNotNull(files);
+
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 200; i++) {
+            for (File file : files) {
+                sb.append(Files.readString(file.toPath())).append(",\n");
+            }
+            sb.append("\"quoted \\\" ], {\", [\"[\\\\\"], {}, ").append(i).append(",\n");
+        }
+        String src = sb.append("null\n]").toString();
+        byte[] bytes = src.getBytes(StandardCharsets.UTF_8);
+
+        JsonSerializer serializer = new JsonSerializer();
+        JsonSerializer parallel = JsonSerializer.builder().parallelism(4).build();
+
+        JsonArray expected = (JsonArray) serializer.decode(bytes);
+        JsonArray array = parallel.decodeArray(bytes);
+        System.out.println("Decoded: " + array.size() + " elements from " + bytes.length + " bytes");
+        assertEquals(expected.getOriginalType(), array.getOriginalType());
+        assertEquals(expected.getOriginalType(), parallel.decodeArray(bytes, Object.class));
+
+        Path file = Files.createTempFile("array", ".json");
+        try {
+            Files.write(file, bytes);
+            assertEquals(expected.getOriginalType(), parallel.decodeArray(file).getOriginalType());
+        } finally {
+            Files.delete(file);
+        }
+
+        assertEquals(0, parallel.decodeArray(" [ ] ".getBytes()).size());
+        assertEquals(2, parallel.decodeArray("[1, 2,]".getBytes()).size());
+        assertThrows(JsonException.class, () -> parallel.decodeArray("{\"a\": 1}".getBytes()));
+        assertThrows(JsonException.class, () -> parallel.decodeArray("[1, {\"a\": 2]".getBytes()));
+        assertThrows(JsonException.class, () -> parallel.decodeArray("[1, 2}".getBytes()));
+        assertThrows(JsonException.class, () -> parallel.decodeArray("[1 2]".getBytes()));
+
+        // Padding that outgrows a chunk puts a cut on the second comma, or on a comma before any element
+        String padding = " ".repeat(1 << 17);
+        Path invalidFile = Files.createTempFile("invalid", ".json");
+        try {
+            for (String invalid : List.of("[1," + padding + ",2]", "[" + padding + ",1]", "[1, 2] xyz", "[1] [2]",
+                    "[1]" + padding + "]")) {
+                byte[] input = invalid.getBytes(StandardCharsets.UTF_8);
+                Files.write(invalidFile, input);
+                assertThrows(JsonException.class, () -> serializer.decode(input));
+                assertThrows(JsonException.class, () -> parallel.decodeArray(input));
+                assertThrows(JsonException.class, () -> parallel.decodeArray(invalidFile));
+            }
+        } finally {
+            Files.delete(invalidFile);
+        }
+        assertEquals(2, parallel.decodeArray(("[1," + padding + "2," + padding + "]").getBytes()).size());
+        assertEquals(1, parallel.decodeArray(("[1]" + padding + "\n").getBytes()).size());
+    }
 }
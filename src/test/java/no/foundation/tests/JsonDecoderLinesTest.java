@@ -0,0 +1,102 @@
+package no.foundation.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import no.foundation.serializer.JsonSerializer;
+import no.foundation.serializer.exceptions.JsonException;
+import no.foundation.tests.models.record.Student;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonDecoderLinesTest {
+
+    @Test
+    public void decodeLinesToRecords() {
+        String src = IntStream.range(0, 20_000)
+                .mapToObj(i -> "{\"id\": %d, \"name\": \"student %d %s\", \"courses\": []}".formatted(i, i, "x".repeat(i % 50)))
+                .collect(Collectors.joining("\n", "", "\n"));
+        JsonSerializer serializer = new JsonSerializer();
+
+        try (Stream<Student> students = serializer.decodeLines(input(src), Student.class)) {
+            List<Student> list = students.toList();
+            System.out.println("Decoded: " + list.size() + " records, last " + list.getLast());
+            assertEquals(20_000, list.size());
+            for (int i = 0; i < list.size(); i++) {
+                assertEquals(i, list.get(i).id());
+            }
+        }
+    }
+
+    @Test
+    public void decodeLinesSkipsBlankLines() {
+        String src = "{\"a\": 1}\r\n\n   \n{\"a\": 2}\n[3]";
+        JsonSerializer serializer = new JsonSerializer();
+
+        List<Object> values = serializer.decodeLines(input(src), Object.class).toList();
+        System.out.println("Decoded: " + values);
+        assertEquals(3, values.size());
+        assertEquals(Map.of("a", BigInteger.TWO), values.get(1));
+    }
+
+    @Test
+    public void decodeLinesReportsLineNumber() {
+        String src = "{\"a\": 1}\n{\"a\": 2}\n\n{\"a\": }\n{\"a\": 4}\n";
+        JsonSerializer serializer = new JsonSerializer();
+
+        Stream<Map> stream = serializer.decodeLines(input(src), Map.class);
+        JsonException e = assertThrows(JsonException.class, stream::toList);
+        System.out.println("Error: " + e.getMessage());
+        assertTrue(e.getMessage().contains("line 4"));
+
+        Stream<Map> trailing = serializer.decodeLines(input("{\"a\": 1} {\"b\": 2}"), Map.class);
+        assertThrows(JsonException.class, trailing::toList);
+    }
+
+    @Test
+    public void decodeLinesInParallel() throws IOException {
+        String src = IntStream.range(0, 50_000)
+                .mapToObj(i -> "{\"id\": %d, \"name\": \"student %d\", \"courses\": []}%s".formatted(i, i, i % 7 == 0 ? "\n" : ""))
+                .collect(Collectors.joining("\n"));
+        byte[] bytes = src.getBytes(StandardCharsets.UTF_8);
+        JsonSerializer serializer = JsonSerializer.builder()
+                .parallelism(4)
+                .build();
+
+        List<Student> sequential = serializer.decodeLines(input(src), Student.class).toList();
+        List<Student> ordered = serializer.decodeLines(bytes, Student.class, true);
+        List<Student> unordered = serializer.decodeLines(bytes, Student.class, false);
+        System.out.println("Decoded: " + ordered.size() + " records in order, " + unordered.size() + " unordered");
+        assertEquals(sequential, ordered);
+        assertEquals(Set.copyOf(sequential), Set.copyOf(unordered));
+        assertEquals(sequential.size(), unordered.size());
+
+        Path file = Files.createTempFile("lines", ".jsonl");
+        try {
+            Files.write(file, bytes);
+            assertEquals(sequential, serializer.decodeLines(file, Student.class, true));
+        } finally {
+            Files.delete(file);
+        }
+
+        byte[] broken = (src + "\n{\"id\": }\n").getBytes(StandardCharsets.UTF_8);
+        JsonException e = assertThrows(JsonException.class, () -> serializer.decodeLines(broken, Map.class, true));
+        System.out.println("Error: " + e.getMessage());
+        assertTrue(e.getMessage().contains("line " + (src.lines().count() + 1)));
+    }
+
+    private static InputStream input(String src) {
+        return new ByteArrayInputStream(src.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,13 +1,21 @@
 package no.foundation.tests;
 
 import no.foundation.serializer.JsonSerializer;
+import no.foundation.serializer.exceptions.JsonException;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import no.foundation.serializer.tree.JsonArray;
+import no.foundation.serializer.tree.JsonObject;
+import no.foundation.tests.models.record.Student;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 
 public class JsonDecoderObjectTest {
@@ -131,4 +139,60 @@ public class JsonDecoderObjectTest {
             System.out.println();
         });
     }
+
+    @Test
+    public void decodeWithProjection() {
+        String noise = "\"extra\": {\"a\": [1, 2.5e3, {\"b\": \"} ] \\\" {\"}], \"c\": null}, \"flags\": [true, false], \"note\": \"x\\u0041\"";
+        String src = "{" + noise + ", \"id\": 1, \"courses\": [{\"id\": 10, " + noise + ", \"name\": \"Math\", \"students\": [{\"id\": 2, "
+                + noise + ", \"name\": \"Kim\"}]}], \"name\": \"Ada\", \"tail\": [[[]], {}]}";
+        byte[] bytes = src.getBytes(StandardCharsets.UTF_8);
+
+        JsonSerializer serializer = new JsonSerializer();
+        Student expected = serializer.decode(src, Student.class);
+        System.out.println("Decoded: " + expected);
+
+        for (JsonSerializer projected : List.of(
+                JsonSerializer.builder().projection(true).build(),
+                JsonSerializer.builder().projection(true).structuralIndex(true).build(),
+                JsonSerializer.builder().projection(true).tape(true).build())) {
+            assertEquals(expected, projected.decode(src, Student.class));
+            assertEquals(expected, projected.decode(bytes, Student.class));
+            assertEquals(serializer.decode(bytes, no.foundation.tests.models.pojo.Student.class).toString(),
+                    projected.decode(bytes, no.foundation.tests.models.pojo.Student.class).toString());
+        }
+
+        JsonObject partial = (JsonObject) serializer.decode(bytes, Set.of("name", "courses.students.name", "extra.a"));
+        System.out.println("Projected: " + partial);
+        assertEquals(Set.of("name", "courses", "extra"), partial.keySet());
+        assertEquals(serializer.decode("{\"students\": [{\"name\": \"Kim\"}]}").getOriginalType(),
+                ((JsonArray) partial.get("courses")).get(0).getOriginalType());
+        assertEquals(serializer.decode(bytes, Set.of("extra")).getOriginalType(), serializer.decode(src, Set.of("extra", "extra.a")).getOriginalType());
+        assertThrows(IllegalArgumentException.class, () -> serializer.decode(src, Set.of("courses..name")));
+
+        JsonSerializer taped = JsonSerializer.builder().tape(true).build();
+        for (String malformed : List.of("{\"x\": }, \"a\": 1}", "{\"x\": :, \"a\": 1}", "{\"x\": , \"a\": 1}",
+                "{\"x\": ], \"a\": 1}")) {
+            assertThrows(JsonException.class, () -> serializer.decode(malformed, Set.of("a")));
+            assertThrows(JsonException.class, () -> serializer.decode(malformed.getBytes(StandardCharsets.UTF_8), Set.of("a")));
+            assertThrows(JsonException.class, () -> taped.decode(malformed.getBytes(StandardCharsets.UTF_8), Set.of("a")));
+        }
+    }
+
+    @Test
+    public void decodeWithProjectionFromStream() throws IOException {
+        StringBuilder sb = new StringBuilder("{\"extra\": [");
+        for (int i = 0; i < 50_000; i++) {
+            sb.append("{\"s\": \"] } \\\" [\", \"n\": [").append(i).append("]},");
+        }
+        String src = sb.append("null], \"id\": 1, \"name\": \"Ada\", \"courses\": []}").toString();
+        byte[] bytes = src.getBytes(StandardCharsets.UTF_8);
+
+        JsonSerializer serializer = new JsonSerializer();
+        JsonSerializer projected = JsonSerializer.builder().projection(true).build();
+        Student expected = serializer.decode(bytes, Student.class);
+        System.out.println("Decoded: " + expected + " from " + bytes.length + " bytes");
+        assertEquals(expected, projected.decode(new ByteArrayInputStream(bytes), Student.class));
+        assertThrows(JsonException.class, () -> projected.decode(
+                new ByteArrayInputStream(src.substring(0, src.length() / 2).getBytes(StandardCharsets.UTF_8)), Student.class));
+    }
 }
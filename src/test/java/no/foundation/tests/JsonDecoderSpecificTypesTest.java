@@ -1,10 +1,21 @@
 package no.foundation.tests;
 
 import no.foundation.serializer.JsonSerializer;
+import no.foundation.serializer.JsonReader;
+import no.foundation.serializer.KeyCacheStatistics;
+import no.foundation.serializer.NumberMode;
+import no.foundation.serializer.exceptions.JsonException;
+import no.foundation.serializer.tree.JsonNumber;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.*;
 import java.util.Collection;
@@ -308,4 +319,178 @@ public class JsonDecoderSpecificTypesTest {
             System.out.println("Instant: " + Instant.parse(instant));
         });
     }
+
+    @Test
+    public void decodeNumbersWithNumberModes() throws IOException {
+        String json = "[1, -25, 1.5, 2e3, 123456789012345678901234567890]";
+
+        List<?> exact = new JsonSerializer().decode(json, List.class);
+        System.out.println("BIG_DECIMAL: " + exact);
+        assertEquals(BigInteger.ONE, exact.get(0));
+        assertEquals(new BigDecimal("1.5"), exact.get(2));
+        assertEquals(new BigDecimal("2e3"), exact.get(3));
+
+        JsonSerializer primitive = JsonSerializer.builder().numberMode(NumberMode.LONG_OR_DOUBLE).build();
+        List<?> fast = primitive.decode(json, List.class);
+        System.out.println("LONG_OR_DOUBLE: " + fast);
+        assertEquals(1L, fast.get(0));
+        assertEquals(-25L, fast.get(1));
+        assertEquals(1.5, fast.get(2));
+        assertEquals(2000.0, fast.get(3));
+        assertEquals(new BigInteger("123456789012345678901234567890"), fast.get(4));
+
+        JsonSerializer lazy = JsonSerializer.builder().numberMode(NumberMode.LAZY).build();
+        List<?> deferred = lazy.decode(json, List.class);
+        System.out.println("LAZY: " + deferred);
+        assertInstanceOf(JsonNumber.class, deferred.get(2));
+        assertEquals("1.5", deferred.get(2).toString());
+        assertEquals(-25, ((Number) deferred.get(1)).intValue());
+        assertEquals(new BigDecimal("2e3"), ((JsonNumber) deferred.get(3)).bigDecimalValue());
+    }
+
+    @Test
+    public void decodeRepeatedKeysThroughKeyCache() {
+        String json = "[{\"id\": 1, \"name\": \"a\"}, {\"id\": 2, \"name\": \"b\"}, {\"id\": 3, \"name\": \"c\"}]";
+
+        JsonSerializer serializer = new JsonSerializer();
+        List<?> fromString = serializer.decode(json, List.class);
+        List<?> fromBytes = serializer.decode(json.getBytes(), List.class);
+        System.out.println("Decoded: " + fromString);
+
+        Map<?, ?> first = (Map<?, ?>) fromBytes.get(0);
+        Map<?, ?> second = (Map<?, ?>) fromBytes.get(1);
+        String firstKey = (String) first.keySet().iterator().next();
+        String secondKey = (String) second.keySet().iterator().next();
+        assertSame(firstKey, secondKey);
+        assertEquals(fromString, fromBytes);
+
+        KeyCacheStatistics statistics = serializer.keyCacheStatistics();
+        System.out.println("Key cache: " + statistics);
+        assertEquals(12, statistics.hits() + statistics.misses());
+        assertTrue(statistics.hits() >= 6);
+
+        JsonSerializer uncached = JsonSerializer.builder().keyCacheSize(0).build();
+        assertEquals(fromString, uncached.decode(json, List.class));
+        assertEquals(0, uncached.keyCacheStatistics().hits());
+    }
+
+    @Test
+    public void decodeKeysWithCollidingRawHashes() {
+        // The raw texts bwgkilj\\n and bwgkilj\n hash alike, and the first decodes to the raw text of the second
+        String json = "{\"bwgkilj\\\\n\": 1, \"bwgkilj\\n\": 2}";
+        Set<String> expected = Set.of("bwgkilj\\n", "bwgkilj\n");
+
+        JsonSerializer serializer = new JsonSerializer();
+        Map<?, ?> fromString = serializer.decode(json, Map.class);
+        System.out.println("Decoded: " + fromString);
+        assertEquals(expected, fromString.keySet());
+        assertEquals(expected, serializer.decode(json.getBytes(StandardCharsets.UTF_8), Map.class).keySet());
+        assertEquals(fromString, serializer.decode(json, Map.class));
+    }
+
+    @Test
+    public void decodeEscapedStrings() throws IOException {
+        String json = "{\"quote\": \"\\\\\\\"\", \"lines\": \"a\\nb\\tc\\/\", "
+                + "\"unicode\": \"caf\\u00e9 \\ud83d\\ude00\", \"k\\u0065y\": \"plain \u00e9\"}";
+        Map<String, String> expected = Map.of(
+                "quote", "\\\"",
+                "lines", "a\nb\tc/",
+                "unicode", "caf\u00e9 \ud83d\ude00",
+                "key", "plain \u00e9");
+
+        JsonSerializer serializer = new JsonSerializer();
+        JsonSerializer indexed = JsonSerializer.builder().structuralIndex(true).tape(true).build();
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        Map<?, ?> decoded = serializer.decode(json, Map.class);
+        System.out.println("Decoded: " + decoded);
+        assertEquals(expected, decoded);
+        assertEquals(expected, serializer.decode(bytes, Map.class));
+        assertEquals(expected, indexed.decode(bytes, Map.class));
+
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            reader.nextToken();
+            reader.nextToken();
+            reader.nextToken();
+            assertEquals("\\\"", reader.getString());
+        }
+
+        String encoded = serializer.encode(decoded);
+        System.out.println("Encoded: " + encoded);
+        assertEquals(expected, serializer.decode(encoded, Map.class));
+
+        assertThrows(JsonException.class, () -> serializer.decode("\"\\x\"").getOriginalType());
+        byte[] nonAscii = "[\"\\\u00e9\"]".getBytes(StandardCharsets.UTF_8);
+        for (JsonSerializer decoder : List.of(serializer, indexed)) {
+            JsonException e = assertThrows(JsonException.class, () -> decoder.decode(nonAscii).getOriginalType());
+            assertEquals("Invalid escape sequence '\\\u00e9'", e.getMessage());
+        }
+        assertThrows(JsonException.class, () -> serializer.decode(new String(nonAscii, StandardCharsets.UTF_8)).getOriginalType());
+        assertThrows(JsonException.class, () -> serializer.decode("\"\\u12\"").getOriginalType());
+    }
+
+    @Test
+    public void decodeDigitRunsAndLiteralsFromBytes() {
+        String json = "[\n        12345678, -1234567890123456, 123456789012345678901234,\r\n\t"
+                + "0.12345678901234567, 98765432.1e3, true,\n            false, null]";
+        JsonSerializer serializer = new JsonSerializer();
+
+        List<?> fromBytes = serializer.decode(json.getBytes(StandardCharsets.UTF_8), List.class);
+        System.out.println("Decoded: " + fromBytes);
+        assertEquals(serializer.decode(json, List.class), fromBytes);
+        assertEquals(new BigInteger("-1234567890123456"), fromBytes.get(1));
+        assertEquals(new BigInteger("123456789012345678901234"), fromBytes.get(2));
+        assertEquals(new BigDecimal("98765432.1e3"), fromBytes.get(4));
+
+        assertThrows(JsonException.class, () -> serializer.decode("[truex]".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(JsonException.class, () -> serializer.decode("[1,\f2]".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void decodeRejectsTrailingContent() throws IOException {
+        Path file = Files.createTempFile("trailing", ".json");
+        try {
+            Files.writeString(file, "[1] ]");
+            for (JsonSerializer serializer : List.of(
+                    new JsonSerializer(),
+                    JsonSerializer.builder().structuralIndex(true).build(),
+                    JsonSerializer.builder().tape(true).build(),
+                    JsonSerializer.builder().lazy(true).build())) {
+                assertEquals(serializer.decode("{\"a\":1}", Map.class), serializer.decode("{\"a\":1} \n", Map.class));
+                assertThrows(JsonException.class, () -> serializer.decode("{\"a\":1} xyz"));
+                assertThrows(JsonException.class, () -> serializer.decode("{\"a\":1} }"));
+                assertThrows(JsonException.class, () -> serializer.decode("{\"a\":1} }", Map.class));
+                assertThrows(JsonException.class, () -> serializer.decode("[1] ]".getBytes(StandardCharsets.UTF_8)));
+                assertThrows(JsonException.class, () -> serializer.decode("[1] ]".getBytes(StandardCharsets.UTF_8), List.class));
+                assertThrows(JsonException.class, () -> serializer.decode(new ByteArrayInputStream("[1] 2".getBytes(StandardCharsets.UTF_8))));
+                assertThrows(JsonException.class, () -> serializer.decode(file));
+                assertThrows(JsonException.class, () -> serializer.decode(file, List.class));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void encodeAndDecodeTemporals() {
+        Event event = new Event(
+                Instant.parse("2024-06-18T18:30:00.250Z"),
+                LocalDate.parse("2024-02-29"),
+                LocalDateTime.parse("2024-06-18T14:30"),
+                OffsetDateTime.parse("2024-06-18T14:30:00.000001-04:00"),
+                new java.util.Date(1_718_735_400_123L));
+
+        JsonSerializer serializer = new JsonSerializer();
+        String encoded = serializer.encode(event);
+        System.out.println("Encoded: " + encoded);
+        assertEquals("{\"at\": \"2024-06-18T18:30:00.250Z\", \"day\": \"2024-02-29\", \"local\": \"2024-06-18T14:30\", "
+                + "\"offset\": \"2024-06-18T14:30:00.000001-04:00\", \"legacy\": \"2024-06-18T18:30:00.123Z\"}", encoded);
+        assertEquals(encoded, new String(serializer.encodeToBytes(event), StandardCharsets.US_ASCII));
+
+        assertEquals(event, serializer.decode(encoded, Event.class));
+        assertThrows(JsonException.class, () -> serializer.decode("{\"day\": \"2023-02-29\"}", Event.class));
+    }
+
+    public record Event(Instant at, LocalDate day, LocalDateTime local, OffsetDateTime offset, java.util.Date legacy) {
+    }
 }
@@ -1,9 +1,25 @@
 package no.foundation.tests;
 
 import no.foundation.serializer.JsonSerializer;
+import no.foundation.serializer.annotations.JsonIgnore;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class JsonEncoderObjectsTest {
 
@@ -186,4 +202,159 @@ public class JsonEncoderObjectsTest {
         System.out.println();
         System.out.println("Encoded well formatted: " + encodedWellFormatted);
     }
+
+    @Test
+    public void encodeToStreamsMatchesString() throws IOException {
+        no.foundation.tests.models.record.Teacher teacher = no.foundation.tests.models.record.Teacher.builder()
+                .id(1L)
+                .name("Åse \"Oz\" \\ \u0001 \uD83D\uDE00 \u20AC")
+                .build();
+        List<no.foundation.tests.models.record.Course> courses = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            courses.add(no.foundation.tests.models.record.Course.builder()
+                    .id((long) i)
+                    .name("course\t" + i)
+                    .teacher(teacher)
+                    .students(List.of())
+                    .build());
+        }
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("courses", courses);
+        value.put("empty", Map.of());
+        value.put("missing", null);
+        value.put("numbers", List.of(1, 2.5, BigInteger.TEN, true));
+
+        JsonSerializer serializer = new JsonSerializer();
+        for (boolean formatted : new boolean[]{false, true}) {
+            String expected = serializer.encode(value, formatted);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            serializer.encode(value, bytes, formatted);
+            StringWriter chars = new StringWriter();
+            serializer.encode(value, chars, formatted);
+
+            System.out.println("Encoded: " + bytes.size() + " bytes, formatted: " + formatted);
+            assertEquals(expected, bytes.toString(StandardCharsets.UTF_8));
+            assertEquals(expected, chars.toString());
+        }
+    }
+
+    @Test
+    public void encodeTreeAsObject() throws IOException {
+        JsonSerializer serializer = new JsonSerializer();
+        Object tree = serializer.decode("{\"a\": [1, \"x\", null, {\"b\": true}]}");
+
+        String encoded = serializer.encode(tree);
+        System.out.println("Encoded: " + encoded);
+        assertEquals("{\"a\": [1, \"x\", null, {\"b\": true}]}", encoded);
+        assertEquals(encoded, new String(serializer.encodeToBytes(tree), StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        serializer.encode(tree, bytes, true);
+        StringWriter chars = new StringWriter();
+        serializer.encode(tree, chars, true);
+        assertEquals(serializer.encode(tree, true), bytes.toString(StandardCharsets.UTF_8));
+        assertEquals(serializer.encode(tree, true), chars.toString());
+    }
+
+    @Test
+    public void encodeToBytesAndBuffers() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", i);
+            row.put("name", "Åse \"" + i + "\" \uD83D\uDE00");
+            rows.add(row);
+        }
+        JsonSerializer serializer = new JsonSerializer();
+        byte[] expected = serializer.encode(rows).getBytes(StandardCharsets.UTF_8);
+
+        assertArrayEquals(expected, serializer.encodeToBytes(rows));
+        assertArrayEquals(serializer.encode(rows, true).getBytes(StandardCharsets.UTF_8), serializer.encodeToBytes(rows, true));
+
+        ByteBuffer pooled = serializer.encodeToBuffer(rows);
+        byte[] copy = new byte[pooled.remaining()];
+        pooled.get(copy);
+        assertArrayEquals(expected, copy);
+        serializer.release(pooled);
+        ByteBuffer reused = serializer.encodeToBuffer(rows);
+        System.out.println("Pooled buffer: " + reused.capacity() + " bytes, reused: " + (reused.array() == pooled.array()));
+        assertSame(pooled.array(), reused.array());
+        serializer.release(reused);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(expected.length + 2);
+        direct.put((byte) '[');
+        assertEquals(expected.length, serializer.encode(rows, direct));
+        assertEquals(expected.length + 1, direct.position());
+        assertThrows(BufferOverflowException.class, () -> serializer.encode(rows, direct));
+        assertEquals(expected.length + 1, direct.position());
+    }
+
+    @Test
+    public void encodeFieldKeysOfEveryClassOnce() throws IOException {
+        List<Boat> boats = List.of(new Boat("Ålesund", 12), new Boat("Bergen \"B\"", 7));
+        String expected = "[{\"name\": \"Ålesund\", \"længde\": 12}, {\"name\": \"Bergen \\\"B\\\"\", \"længde\": 7}]";
+
+        JsonSerializer serializer = new JsonSerializer();
+        assertEquals(expected, serializer.encode(boats));
+        assertEquals(expected, new String(serializer.encodeToBytes(boats), StandardCharsets.UTF_8));
+        StringWriter chars = new StringWriter();
+        serializer.encode(boats, chars);
+        assertEquals(expected, chars.toString());
+
+        JsonSerializer ascii = JsonSerializer.builder()
+                .asciiOnly(true)
+                .build();
+        String escaped = expected.replace("Å", "\\u00c5").replace("æ", "\\u00e6");
+        System.out.println("Encoded: " + escaped);
+        assertEquals(escaped, new String(ascii.encodeToBytes(boats), StandardCharsets.US_ASCII));
+        assertEquals(escaped, ascii.encode(boats));
+    }
+
+    @Test
+    public void encodeInParallelMatchesSequential() throws IOException {
+        List<Object> rows = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            rows.add(i % 3 == 0 ? new Boat("Båt " + i, i) : List.of(i, "row\t" + i, Map.of("nested", List.of(i, i + 0.5))));
+        }
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("rows", rows);
+        value.put("small", List.of(1, 2));
+        value.put("empty", List.of());
+
+        JsonSerializer sequential = new JsonSerializer();
+        List<Object> trees = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            trees.add(sequential.decode("{\"id\": " + i + ", \"tags\": [\"t\", 1.5, null]}"));
+        }
+        value.put("trees", trees);
+
+        JsonSerializer parallel = JsonSerializer.builder()
+                .parallelism(4)
+                .parallelEncodeThreshold(100)
+                .build();
+        for (boolean formatted : new boolean[]{false, true}) {
+            String expected = sequential.encode(value, formatted);
+            assertEquals(expected, parallel.encode(value, formatted));
+            assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), parallel.encodeToBytes(value, formatted));
+            StringWriter chars = new StringWriter();
+            parallel.encode(value, chars, formatted);
+            assertEquals(expected, chars.toString());
+            System.out.println("Encoded in parallel: " + expected.length() + " characters, formatted: " + formatted);
+        }
+        assertThrows(IllegalArgumentException.class, () -> JsonSerializer.builder().parallelEncodeThreshold(-1));
+    }
+
+    private static final class Boat {
+
+        private final String name;
+        private final int længde;
+        @JsonIgnore(onlyEncoder = true)
+        private final String secret = "hidden";
+
+        Boat(String name, int længde) {
+            this.name = name;
+            this.længde = længde;
+        }
+    }
 }
@@ -3,11 +3,17 @@ package no.foundation.tests;
 import no.foundation.serializer.JsonSerializer;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.*;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class JsonEncoderSpecificTypesTest {
 
@@ -203,4 +209,50 @@ public class JsonEncoderSpecificTypesTest {
         System.out.println();
         System.out.println("Encoded well formatted: " + encodedWellFormatted);
     }
+
+    @Test
+    public void encodeEscapedStrings() throws IOException {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("quote\"", "a\\b\"c\n\t\u0001\u001f/");
+        value.put("text", "é € \uD83D\uDE00");
+
+        JsonSerializer serializer = new JsonSerializer();
+        String encoded = serializer.encode(value);
+        System.out.println("Encoded: " + encoded);
+        assertEquals("{\"quote\\\"\": \"a\\\\b\\\"c\\n\\t\\u0001\\u001f/\", \"text\": \"é € \uD83D\uDE00\"}", encoded);
+
+        JsonSerializer ascii = JsonSerializer.builder()
+                .asciiOnly(true)
+                .build();
+        String expected = "{\"quote\\\"\": \"a\\\\b\\\"c\\n\\t\\u0001\\u001f/\", \"text\": \"\\u00e9 \\u20ac \\ud83d\\ude00\"}";
+        assertEquals(expected, ascii.encode(value));
+        assertEquals(expected, new String(ascii.encodeToBytes(value), StandardCharsets.US_ASCII));
+        StringWriter writer = new StringWriter();
+        ascii.encode(value, writer);
+        assertEquals(expected, writer.toString());
+        assertEquals(value, serializer.decode(expected).getOriginalType());
+    }
+
+    @Test
+    public void encodeNumbersAsToString() throws IOException {
+        SplittableRandom random = new SplittableRandom(7);
+        List<Number> numbers = new ArrayList<>(List.of(0.0, -0.0, 1e7, 1e-3, 9.999999e-4, Double.MIN_VALUE, Double.MAX_VALUE,
+                Float.MIN_VALUE, Float.MAX_VALUE, 1e23, Long.MIN_VALUE, Long.MAX_VALUE, Integer.MIN_VALUE, (short) -7, (byte) 12));
+        for (int i = 0; i < 10_000; i++) {
+            numbers.add(Double.longBitsToDouble(random.nextLong()));
+            numbers.add(Float.intBitsToFloat(random.nextInt()));
+            numbers.add(random.nextInt(-100_000, 100_000) / 100.0);
+            numbers.add(random.nextLong());
+        }
+        numbers.removeIf(n -> n instanceof Double d && !Double.isFinite(d) || n instanceof Float f && !Float.isFinite(f));
+        String expected = numbers.toString();
+
+        JsonSerializer serializer = new JsonSerializer();
+        assertEquals(expected, serializer.encode(numbers));
+        assertEquals(expected, new String(serializer.encodeToBytes(numbers), StandardCharsets.US_ASCII));
+        StringWriter writer = new StringWriter();
+        serializer.encode(numbers, writer);
+        assertEquals(expected, writer.toString());
+        System.out.println("Encoded: " + expected.length() + " characters");
+    }
 }
@@ -0,0 +1,72 @@
+package no.foundation.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import no.foundation.serializer.JsonPath;
+import no.foundation.serializer.JsonReader;
+import no.foundation.serializer.tree.JsonNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonPathTest {
+
+    private static final String ORDERS = """
+            {"orders": [
+                {"id": 1, "items": [{"sku": "A1", "qty": 2}, {"sku": "B2", "qty": 1}], "note": "x"},
+                {"id": 2, "items": [], "gift": {"sku": "G9"}},
+                {"id": 3, "items": [{"sku": "C3", "qty": 5, "parts": [{"sku": "C3-1"}]}]}
+            ], "count": 3}
+            """;
+
+    @Test
+    public void selectMatchesInDocumentOrder() throws IOException {
+        assertEquals(List.of("\"A1\"", "\"B2\"", "\"C3\""), select("$.orders[*].items[*].sku"));
+        assertEquals(List.of("\"A1\"", "\"B2\"", "\"G9\"", "\"C3\"", "\"C3-1\""), select("$..sku"));
+        assertEquals(List.of("2", "3"), select("$.orders[1:].id"));
+        assertEquals(List.of("1", "3"), select("$['orders'][0:3:2].id"));
+        assertEquals(List.of("\"B2\""), select("$.orders[0].items[1].sku"));
+        assertEquals(List.of("3"), select("$.count"));
+        assertEquals(List.of("2", "5"), select("$..[0].qty"));
+        assertEquals(List.of(), select("$.orders[7].id"));
+        assertEquals(8, select("$.orders.*.*").size());
+
+        List<String> nested = select("$..items[*]");
+        System.out.println("Matches: " + nested);
+        assertEquals(3, nested.size());
+        assertTrue(nested.get(2).contains("C3-1"));
+    }
+
+    @Test
+    public void selectStopsAtLimit() throws IOException {
+        String src = "{\"a\": [{\"b\": 1}, {\"b\": 2}, {\"b\": 3}], \"broken\": ";
+        List<JsonNode> matches = new ArrayList<>();
+        try (JsonReader reader = new JsonReader(new ByteArrayInputStream(src.getBytes(StandardCharsets.UTF_8)))) {
+            long count = JsonPath.compile("$.a[*].b").select(reader, 2, matches::add);
+            assertEquals(2, count);
+        }
+        assertEquals("[1, 2]", matches.toString());
+    }
+
+    @Test
+    public void rejectUnsupportedExpressions() {
+        assertThrows(IllegalArgumentException.class, () -> JsonPath.compile("orders"));
+        assertThrows(IllegalArgumentException.class, () -> JsonPath.compile("$.orders[-1]"));
+        assertThrows(IllegalArgumentException.class, () -> JsonPath.compile("$.orders[::0]"));
+        assertThrows(IllegalArgumentException.class, () -> JsonPath.compile("$.orders[0"));
+        assertThrows(IllegalArgumentException.class, () -> JsonPath.compile("$."));
+        assertEquals("$..sku", JsonPath.compile("$..sku").toString());
+    }
+
+    private static List<String> select(String path) throws IOException {
+        List<String> matches = new ArrayList<>();
+        try (JsonReader reader = new JsonReader(new StringReader(ORDERS))) {
+            JsonPath.compile(path).select(reader, node -> matches.add(node.toString()));
+        }
+        return matches;
+    }
+}
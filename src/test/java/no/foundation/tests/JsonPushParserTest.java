@@ -0,0 +1,108 @@
+package no.foundation.tests;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import no.foundation.serializer.JsonPushParser;
+import no.foundation.serializer.JsonReader.Token;
+import no.foundation.serializer.JsonSerializer;
+import no.foundation.serializer.exceptions.JsonException;
+import no.foundation.serializer.tree.JsonNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonPushParserTest {
+
+    @Test
+    public void parseNodesFedInChunks() throws IOException {
+        File[] files = Path.of("src/test/resources/json_to_map").toFile().listFiles();
+        assertNotNull(files);
+
+        JsonSerializer serializer = new JsonSerializer();
+
+        for (File file : files) {
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            Object expected = serializer.decode(bytes).getOriginalType();
+            System.out.println("File name: " + file.getName());
+
+            for (int chunkSize : new int[]{1, 3, 7, 64}) {
+                JsonPushParser parser = new JsonPushParser();
+                JsonNode node = null;
+                for (int i = 0; i < bytes.length && node == null; i += chunkSize) {
+                    parser.feed(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i)));
+                    node = parser.nextNode();
+                }
+                parser.endOfInput();
+                if (node == null) {
+                    node = parser.nextNode();
+                }
+                assertNotNull(node);
+                assertEquals(expected, node.getOriginalType());
+                assertNull(parser.nextNode());
+                assertEquals(Token.END_DOCUMENT, parser.currentToken());
+            }
+        }
+    }
+
+    @Test
+    public void pollTokensAcrossChunkBoundaries() {
+        JsonPushParser parser = new JsonPushParser();
+        List<Token> tokens = new ArrayList<>();
+
+        parser.feed(chunk("{\"na"));
+        tokens.add(parser.nextToken());
+        assertNull(parser.nextToken());
+        parser.feed(chunk("me\": \"Jo"));
+        assertEquals(Token.BEGIN_OBJECT, parser.currentToken());
+        tokens.add(parser.nextToken());
+        assertEquals("name", parser.currentName());
+        assertNull(parser.nextToken());
+        parser.feed(chunk("e\", \"n\": 12"));
+        tokens.add(parser.nextToken());
+        assertEquals("Joe", parser.getString());
+        tokens.add(parser.nextToken());
+        assertNull(parser.nextToken());
+        parser.feed(chunk("34}\n"));
+        tokens.add(parser.nextToken());
+        assertEquals(1234, parser.getNumber().intValue());
+        tokens.add(parser.nextToken());
+        assertNull(parser.nextToken());
+
+        parser.feed(chunk("[true] 5"));
+        tokens.add(parser.nextToken());
+        tokens.add(parser.nextToken());
+        tokens.add(parser.nextToken());
+        assertNull(parser.nextToken());
+        parser.endOfInput();
+        tokens.add(parser.nextToken());
+        tokens.add(parser.nextToken());
+
+        System.out.println("Tokens: " + tokens);
+        assertEquals(List.of(Token.BEGIN_OBJECT, Token.NAME, Token.STRING, Token.NAME, Token.NUMBER, Token.END_OBJECT,
+                Token.BEGIN_ARRAY, Token.TRUE, Token.END_ARRAY, Token.NUMBER, Token.END_DOCUMENT), tokens);
+    }
+
+    @Test
+    public void reportTruncatedAndMalformedInput() {
+        JsonPushParser truncated = new JsonPushParser();
+        truncated.feed(chunk("[1, 2"));
+        assertNull(truncated.nextNode());
+        truncated.endOfInput();
+        assertThrows(JsonException.class, truncated::nextNode);
+        assertThrows(JsonException.class, () -> truncated.feed(chunk("]")));
+
+        JsonPushParser malformed = new JsonPushParser();
+        malformed.feed(chunk("{\"a\" 1}"));
+        assertThrows(JsonException.class, malformed::nextNode);
+    }
+
+    private static ByteBuffer chunk(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
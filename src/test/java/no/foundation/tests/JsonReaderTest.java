@@ -0,0 +1,117 @@
+package no.foundation.tests;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import no.foundation.serializer.JsonReader;
+import no.foundation.serializer.JsonReader.Token;
+import no.foundation.serializer.exceptions.JsonException;
+import no.foundation.serializer.tree.JsonNode;
+import no.foundation.serializer.tree.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonReaderTest {
+
+    @Test
+    public void readTokens() throws IOException {
+        String src = """
+                {"id": 7, "name": "Joe", "score": 9.5, "active": true, "tags": ["a", null], "big": 12345678901}
+                """;
+        try (JsonReader reader = new JsonReader(new StringReader(src))) {
+            assertEquals(Token.BEGIN_OBJECT, reader.nextToken());
+
+            assertEquals(Token.NAME, reader.nextToken());
+            assertEquals("id", reader.currentName());
+            assertEquals(Token.NUMBER, reader.nextToken());
+            assertEquals("id", reader.currentName());
+            assertEquals(7, reader.getInt());
+
+            assertEquals(Token.NAME, reader.nextToken());
+            assertEquals(Token.STRING, reader.nextToken());
+            assertEquals("name", reader.currentName());
+            assertEquals("Joe", reader.getString());
+
+            assertEquals(Token.NAME, reader.nextToken());
+            assertEquals(Token.NUMBER, reader.nextToken());
+            assertEquals(9.5, reader.getDouble());
+            assertThrows(JsonException.class, reader::getLong);
+
+            assertEquals(Token.NAME, reader.nextToken());
+            assertEquals(Token.TRUE, reader.nextToken());
+            assertTrue(reader.getBoolean());
+
+            assertEquals(Token.NAME, reader.nextToken());
+            assertEquals(Token.BEGIN_ARRAY, reader.nextToken());
+            assertEquals("tags", reader.currentName());
+            assertEquals(Token.STRING, reader.nextToken());
+            assertEquals("a", reader.getString());
+            assertEquals(Token.NULL, reader.nextToken());
+            assertEquals(Token.END_ARRAY, reader.nextToken());
+
+            assertEquals(Token.NAME, reader.nextToken());
+            assertEquals(Token.NUMBER, reader.nextToken());
+            assertEquals(12345678901L, reader.getLong());
+            assertThrows(JsonException.class, reader::getInt);
+
+            assertEquals(Token.END_OBJECT, reader.nextToken());
+            assertEquals(Token.END_DOCUMENT, reader.nextToken());
+        }
+    }
+
+    @Test
+    public void skipChildren() throws IOException {
+        String path = "src/test/resources/json_to_object/course.json";
+        File file = Path.of(path).toFile();
+        assertTrue(file.exists());
+
+        try (JsonReader reader = new JsonReader(new FileInputStream(file))) {
+            List<String> names = new ArrayList<>();
+            assertEquals(Token.BEGIN_OBJECT, reader.nextToken());
+            while (reader.nextToken() == Token.NAME) {
+                names.add(reader.currentName());
+                reader.nextToken();
+                reader.skipChildren();
+            }
+            assertEquals(Token.END_OBJECT, reader.currentToken());
+            assertEquals(Token.END_DOCUMENT, reader.nextToken());
+            assertEquals(List.of("id", "name", "teacher", "students"), names);
+        }
+    }
+
+    @Test
+    public void readArrayElementsAsNodes() throws IOException {
+        String path = "src/test/resources/json_to_map/object_array.json";
+        File file = Path.of(path).toFile();
+        assertTrue(file.exists());
+
+        try (JsonReader reader = new JsonReader(new FileInputStream(file))) {
+            assertEquals(Token.BEGIN_ARRAY, reader.nextToken());
+            int count = 0;
+            while (reader.nextToken() != Token.END_ARRAY) {
+                JsonNode node = reader.readNode();
+                System.out.println("Element: " + node);
+                assertInstanceOf(JsonObject.class, node);
+                count++;
+            }
+            assertEquals(2, count);
+            assertEquals(Token.END_DOCUMENT, reader.nextToken());
+        }
+    }
+
+    @Test
+    public void readMalformedInput() {
+        assertThrows(JsonException.class, () -> {
+            try (JsonReader reader = new JsonReader(new StringReader("{\"a\" 1}"))) {
+                while (reader.nextToken() != Token.END_DOCUMENT) {
+                    System.out.println("Token: " + reader.currentToken());
+                }
+            }
+        });
+    }
+}
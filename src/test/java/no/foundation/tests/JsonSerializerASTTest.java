@@ -1,11 +1,19 @@
 package no.foundation.tests;
 
 import no.foundation.serializer.JsonSerializer;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
 import no.foundation.serializer.tree.JsonArray;
+import no.foundation.serializer.tree.JsonFormat;
 import no.foundation.serializer.tree.JsonObject;
 import no.foundation.serializer.tree.JsonValue;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 public class JsonSerializerASTTest {
 
     @Test
@@ -31,4 +39,37 @@ public class JsonSerializerASTTest {
 
         System.out.println("Encoded: " + encoded);
     }
+
+    @Test
+    public void writeToAppendable() throws IOException {
+        JsonObject node = JsonObject.builder()
+                .put("name", "a \"b\"\n")
+                .put("empty", List.of())
+                .put("list", List.of(1, Map.of("x", true)))
+                .build();
+        node.put("missing", new JsonValue<>(null));
+
+        StringWriter compact = new StringWriter();
+        node.writeTo(compact, JsonFormat.COMPACT);
+        assertEquals(node.toString(), compact.toString());
+        assertEquals("{\"name\": \"a \\\"b\\\"\\n\", \"empty\": [], \"list\": [1, {\"x\": true}], \"missing\": null}", compact.toString());
+
+        StringBuilder pretty = new StringBuilder();
+        node.writeTo(pretty, JsonFormat.pretty(4));
+        System.out.println("Pretty: " + pretty);
+        assertEquals("""
+                {
+                    "name": "a \\"b\\"\\n",
+                    "empty": [],
+                    "list": [
+                        1,
+                        {
+                            "x": true
+                        }
+                    ],
+                    "missing": null
+                }""", pretty.toString());
+        assertEquals(pretty.toString().replace("    ", "  "), new JsonSerializer().encode(node, true));
+        assertThrows(IllegalArgumentException.class, () -> JsonFormat.pretty(-1));
+    }
 }
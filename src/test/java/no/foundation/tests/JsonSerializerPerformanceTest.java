@@ -1,9 +1,35 @@
 package no.foundation.tests;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import no.foundation.serializer.JsonSerializer;
+import no.foundation.tests.models.record.Student;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 public class JsonSerializerPerformanceTest {
 
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 10;
+
     @Test
     public void uniqueInstanceTest() {
         // TODO: not implemented yet
@@ -15,13 +41,272 @@ public class JsonSerializerPerformanceTest {
     }
 
     @Test
-    public void encodeSpeedTest() {
-        // TODO: not implemented yet
+    public void encodeSpeedTest() throws IOException {
+        JsonSerializer serializer = new JsonSerializer();
+        Object value = serializer.decode(scaledPayload(1_000)).getOriginalType();
+        String expected = serializer.encode(value);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(expected.length() * 2);
+
+        long stringNanos = measure(() -> serializer.encode(value).getBytes(StandardCharsets.UTF_8));
+        long streamNanos = measure(() -> {
+            out.reset();
+            try {
+                serializer.encode(value, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        long bytesNanos = measure(() -> serializer.encodeToBytes(value));
+        long pooledNanos = measure(() -> serializer.release(serializer.encodeToBuffer(value)));
+        assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+
+        System.out.printf("Payload: %d bytes%n", out.size());
+        System.out.printf("encode(Object) to bytes: %.1f MB/s%n", throughput(out.size(), stringNanos));
+        System.out.printf("encode(Object, OutputStream): %.1f MB/s%n", throughput(out.size(), streamNanos));
+        System.out.printf("encodeToBytes(Object): %.1f MB/s%n", throughput(out.size(), bytesNanos));
+        System.out.printf("encodeToBuffer(Object) and release: %.1f MB/s%n", throughput(out.size(), pooledNanos));
     }
 
     @Test
-    public void decodeSpeedTest() {
-        // TODO: not implemented yet
+    public void objectEncodeSpeedTest() {
+        List<Student> students = IntStream.range(0, 50_000)
+                .mapToObj(i -> Student.builder()
+                        .id((long) i)
+                        .name("Student " + i)
+                        .courses(List.of())
+                        .build())
+                .toList();
+        JsonSerializer serializer = new JsonSerializer();
+        int size = serializer.encodeToBytes(students).length;
+
+        long stringNanos = measure(() -> serializer.encode(students));
+        long bytesNanos = measure(() -> serializer.encodeToBytes(students));
+
+        System.out.printf("Payload: %d bytes%n", size);
+        System.out.printf("encode(Object) of records: %.1f MB/s%n", throughput(size, stringNanos));
+        System.out.printf("encodeToBytes(Object) of records: %.1f MB/s%n", throughput(size, bytesNanos));
+    }
+
+    @Test
+    public void numberEncodeSpeedTest() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Object> samples = IntStream.range(0, 100_000)
+                .mapToObj(i -> List.of(1_700_000_000_000L + i, random.nextDouble() * 100, (float) random.nextGaussian()))
+                .collect(Collectors.toList());
+        JsonSerializer serializer = new JsonSerializer();
+        int size = serializer.encodeToBytes(samples).length;
+
+        long stringNanos = measure(() -> serializer.encode(samples));
+        long bytesNanos = measure(() -> serializer.encodeToBytes(samples));
+
+        System.out.printf("Payload: %d bytes%n", size);
+        System.out.printf("encode(Object) of numbers: %.1f MB/s%n", throughput(size, stringNanos));
+        System.out.printf("encodeToBytes(Object) of numbers: %.1f MB/s%n", throughput(size, bytesNanos));
+    }
+
+    @Test
+    public void temporalSpeedTest() {
+        Instant start = Instant.parse("2024-06-18T18:30:00Z");
+        List<Reading> readings = IntStream.range(0, 50_000)
+                .mapToObj(i -> new Reading(start.plusMillis(1_357L * i),
+                        OffsetDateTime.ofInstant(start.plusSeconds(i), ZoneOffset.ofHours(2)),
+                        LocalDate.of(2024, 1, 1).plusDays(i % 366)))
+                .toList();
+        JsonSerializer serializer = new JsonSerializer();
+        byte[] bytes = serializer.encodeToBytes(readings);
+        assertEquals(readings, serializer.decodeArray(bytes, Reading.class));
+
+        long encodeNanos = measure(() -> serializer.encodeToBytes(readings));
+        long decodeNanos = measure(() -> serializer.decodeArray(bytes, Reading.class));
+
+        System.out.printf("Payload: %d bytes%n", bytes.length);
+        System.out.printf("encodeToBytes(Object) of temporals: %.1f MB/s%n", throughput(bytes.length, encodeNanos));
+        System.out.printf("decodeArray(byte[], Class) of temporals: %.1f MB/s%n", throughput(bytes.length, decodeNanos));
+    }
+
+    public record Reading(Instant at, OffsetDateTime local, LocalDate day) {
+    }
+
+    @Test
+    public void stringEncodeSpeedTest() {
+        List<String> strings = IntStream.range(0, 50_000)
+                .mapToObj(i -> i % 4 == 0 ? "line " + i + "\n\t\"quoted\" \\ path" : "plain text value number " + i)
+                .toList();
+        JsonSerializer serializer = new JsonSerializer();
+        JsonSerializer ascii = JsonSerializer.builder()
+                .asciiOnly(true)
+                .build();
+        int size = serializer.encodeToBytes(strings).length;
+
+        long stringNanos = measure(() -> serializer.encode(strings));
+        long bytesNanos = measure(() -> serializer.encodeToBytes(strings));
+        long asciiNanos = measure(() -> ascii.encodeToBytes(strings));
+
+        System.out.printf("Payload: %d bytes%n", size);
+        System.out.printf("encode(Object) of strings: %.1f MB/s%n", throughput(size, stringNanos));
+        System.out.printf("encodeToBytes(Object) of strings: %.1f MB/s%n", throughput(size, bytesNanos));
+        System.out.printf("encodeToBytes(Object) of strings, ASCII only: %.1f MB/s%n", throughput(size, asciiNanos));
+    }
+
+    @Test
+    public void decodeSpeedTest() throws IOException {
+        byte[] bytes = scaledPayload(1_000);
+        String src = new String(bytes, StandardCharsets.UTF_8);
+        JsonSerializer serializer = new JsonSerializer();
+
+        assertEquals(serializer.decode(src).toString(), serializer.decode(bytes).toString());
+
+        long stringNanos = measure(() -> serializer.decode(src));
+        long bytesNanos = measure(() -> serializer.decode(bytes));
+
+        System.out.printf("Payload: %d bytes%n", bytes.length);
+        System.out.printf("decode(String): %.1f MB/s%n", throughput(bytes.length, stringNanos));
+        System.out.printf("decode(byte[]): %.1f MB/s%n", throughput(bytes.length, bytesNanos));
+    }
+
+    @Test
+    public void structuralIndexSpeedTest() throws IOException {
+        byte[] bytes = scaledPayload(1_000);
+        JsonSerializer serializer = new JsonSerializer();
+        JsonSerializer indexed = JsonSerializer.builder()
+                .structuralIndex(true)
+                .build();
+        JsonSerializer taped = JsonSerializer.builder()
+                .structuralIndex(true)
+                .tape(true)
+                .build();
+
+        assertEquals(serializer.decode(bytes).toString(), indexed.decode(bytes).toString());
+        assertEquals(serializer.decode(bytes).toString(), taped.decode(bytes).toString());
+
+        long scanNanos = measure(() -> serializer.decode(bytes));
+        long indexNanos = measure(() -> indexed.decode(bytes));
+        long tapeNanos = measure(() -> taped.decode(bytes));
+
+        System.out.printf("Payload: %d bytes%n", bytes.length);
+        System.out.printf("decode(byte[]) scanning: %.1f MB/s%n", throughput(bytes.length, scanNanos));
+        System.out.printf("decode(byte[]) with structural index: %.1f MB/s%n", throughput(bytes.length, indexNanos));
+        System.out.printf("decode(byte[]) with structural index and tape: %.1f MB/s%n", throughput(bytes.length, tapeNanos));
+    }
+
+    @Test
+    public void longStringDecodeSpeedTest() {
+        String text = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(40);
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 500; i++) {
+            sb.append(i == 0 ? "" : ",").append("{\"id\": ").append(i)
+                    .append(", \"text\": \"").append(text).append("\", \"quoted\": \"\\\"").append(text).append("\\\"\"}");
+        }
+        String src = sb.append(']').toString();
+        byte[] bytes = src.getBytes(StandardCharsets.UTF_8);
+        JsonSerializer serializer = new JsonSerializer();
+
+        assertEquals(serializer.decode(src).toString(), serializer.decode(bytes).toString());
+
+        long stringNanos = measure(() -> serializer.decode(src));
+        long bytesNanos = measure(() -> serializer.decode(bytes));
+
+        System.out.printf("Payload: %d bytes%n", bytes.length);
+        System.out.printf("decode(String) long strings: %.1f MB/s%n", throughput(bytes.length, stringNanos));
+        System.out.printf("decode(byte[]) long strings: %.1f MB/s%n", throughput(bytes.length, bytesNanos));
+    }
+
+    @Test
+    public void parallelLinesScalingTest() {
+        String text = IntStream.range(0, 200_000)
+                .mapToObj(i -> "{\"id\": %d, \"name\": \"student %d\", \"courses\": [{\"name\": \"course %d\"}]}".formatted(i, i, i % 10))
+                .collect(Collectors.joining("\n"));
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        JsonSerializer sequential = new JsonSerializer();
+        List<Map> expected = sequential.decodeLines(new ByteArrayInputStream(bytes), Map.class).toList();
+
+        long sequentialNanos = measure(() -> sequential.decodeLines(new ByteArrayInputStream(bytes), Map.class).toList());
+        System.out.printf("Payload: %d bytes%n", bytes.length);
+        System.out.printf("decodeLines(InputStream): %.1f MB/s%n", throughput(bytes.length, sequentialNanos));
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= processors; threads *= 2) {
+            JsonSerializer parallel = JsonSerializer.builder()
+                    .parallelism(threads)
+                    .build();
+            assertEquals(expected, parallel.decodeLines(bytes, Map.class, true));
+
+            long orderedNanos = measure(() -> parallel.decodeLines(bytes, Map.class, true));
+            long unorderedNanos = measure(() -> parallel.decodeLines(bytes, Map.class, false));
+            System.out.printf("decodeLines(byte[]) %d threads: %.1f MB/s ordered, %.1f MB/s unordered%n",
+                    threads, throughput(bytes.length, orderedNanos), throughput(bytes.length, unorderedNanos));
+        }
+    }
+
+    @Test
+    public void parallelEncodeScalingTest() {
+        List<Student> students = IntStream.range(0, 200_000)
+                .mapToObj(i -> Student.builder()
+                        .id((long) i)
+                        .name("student " + i)
+                        .courses(List.of())
+                        .build())
+                .toList();
+        JsonSerializer sequential = new JsonSerializer();
+        byte[] expected = sequential.encodeToBytes(students);
+
+        long sequentialNanos = measure(() -> sequential.encodeToBytes(students));
+        System.out.printf("Payload: %d bytes%n", expected.length);
+        System.out.printf("encodeToBytes(Object): %.1f MB/s%n", throughput(expected.length, sequentialNanos));
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= processors; threads *= 2) {
+            JsonSerializer parallel = JsonSerializer.builder()
+                    .parallelism(threads)
+                    .parallelEncodeThreshold(10_000)
+                    .build();
+            assertArrayEquals(expected, parallel.encodeToBytes(students));
+
+            long parallelNanos = measure(() -> parallel.encodeToBytes(students));
+            System.out.printf("encodeToBytes(Object) %d threads: %.1f MB/s%n", threads, throughput(expected.length, parallelNanos));
+        }
+    }
+
+    @Test
+    public void parallelArraySpeedTest() throws IOException {
+        byte[] bytes = scaledPayload(1_000);
+        JsonSerializer serializer = new JsonSerializer();
+        JsonSerializer parallel = JsonSerializer.builder().build();
+
+        assertEquals(serializer.decode(bytes).getOriginalType(), parallel.decodeArray(bytes).getOriginalType());
+
+        long sequentialNanos = measure(() -> serializer.decode(bytes));
+        long parallelNanos = measure(() -> parallel.decodeArray(bytes));
+
+        System.out.printf("Payload: %d bytes%n", bytes.length);
+        System.out.printf("decode(byte[]): %.1f MB/s%n", throughput(bytes.length, sequentialNanos));
+        System.out.printf("decodeArray(byte[]) %d threads: %.1f MB/s%n",
+                Runtime.getRuntime().availableProcessors(), throughput(bytes.length, parallelNanos));
+    }
+
+    @Test
+    public void projectionSpeedTest() {
+        String wide = IntStream.range(0, 80)
+                .mapToObj(i -> "\"field%d\": {\"values\": [%d, %d.5, \"text %d\"], \"flag\": true}".formatted(i, i, i, i))
+                .collect(Collectors.joining(", "));
+        String courses = IntStream.range(0, 2_000)
+                .mapToObj(i -> "{%s, \"id\": %d, \"name\": \"course %d\"}".formatted(wide, i, i))
+                .collect(Collectors.joining(", "));
+        byte[] bytes = "{\"id\": 1, %s, \"name\": \"student\", \"courses\": [%s]}".formatted(wide, courses)
+                .getBytes(StandardCharsets.UTF_8);
+        JsonSerializer serializer = new JsonSerializer();
+        JsonSerializer projected = JsonSerializer.builder()
+                .projection(true)
+                .build();
+
+        assertEquals(serializer.decode(bytes, Student.class), projected.decode(bytes, Student.class));
+
+        long fullNanos = measure(() -> serializer.decode(bytes, Student.class));
+        long projectedNanos = measure(() -> projected.decode(bytes, Student.class));
+
+        System.out.printf("Payload: %d bytes%n", bytes.length);
+        System.out.printf("decode(byte[], Student.class): %.1f MB/s%n", throughput(bytes.length, fullNanos));
+        System.out.printf("decode(byte[], Student.class) with projection: %.1f MB/s%n", throughput(bytes.length, projectedNanos));
     }
 
     @Test
@@ -38,4 +323,48 @@ public class JsonSerializerPerformanceTest {
     public void multipleInstancesReadInputTest() {
         // TODO: not implemented yet
     }
+
+    /**
+     * Builds a JSON array holding {@code copies} copies of every document under
+     * src/test/resources.
+     */
+    private static byte[] scaledPayload(int copies) throws IOException {
+        File[] files = Path.of("src/test/resources/json_to_map").toFile().listFiles();
+        assertNotNull(files);
+        Arrays.sort(files, Comparator.comparing(File::getName));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        for (int i = 0; i < copies; i++) {
+            for (File file : files) {
+                if (out.size() > 1) {
+                    out.write(',');
+                }
+                out.write(Files.readAllBytes(file.toPath()));
+            }
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    /**
+     * Runs the task a few times to warm it up and returns the fastest of the
+     * measured runs, in nanoseconds.
+     */
+    private static long measure(Runnable task) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static double throughput(long bytes, long nanos) {
+        return bytes / (nanos / 1e9) / (1024 * 1024);
+    }
 }